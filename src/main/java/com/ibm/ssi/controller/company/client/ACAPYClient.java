@@ -23,7 +23,7 @@ import org.springframework.web.bind.annotation.*;
 
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 
-@FeignClient(name = "ACAPYClient", url = "${ssibk.company.controller.agent.apiurl}")
+@FeignClient(name = "ACAPYClient", url = "${ssibk.company.controller.agent.apiurl}", qualifier = ResilientACAPYClient.DELEGATE, primary = false)
 public interface ACAPYClient {
 
     @RequestMapping(method = RequestMethod.POST, value = "/connections/create-invitation")
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.client;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.ibm.ssi.controller.company.client.model.ConnectionRecordDTO;
+import com.ibm.ssi.controller.company.client.model.ConnectionsRecordDTO;
+import com.ibm.ssi.controller.company.client.model.CredentialOfferRequestDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationRequestDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationResultDTO;
+import com.ibm.ssi.controller.company.client.model.IssueCredentialRecordDTO;
+import com.ibm.ssi.controller.company.client.model.RevocationRequestDTO;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.netty.channel.ChannelOption;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Non-blocking counterpart of {@link ACAPYClient}, with the same endpoints, requests and responses.
+ *
+ * The calls run on a small number of Netty event loop threads, so fan-out work can keep hundreds of calls to the
+ * agent in flight without a thread per call. The results complete on these threads: work that blocks must continue
+ * on another executor, e.g. with {@code thenApplyAsync}. The calls share the circuit breakers and the retries of
+ * {@link ResilientACAPYClient}, but have a bulkhead of their own, and fail with {@link AgentUnavailableException}
+ * while the agent is unavailable. Callers limit their calls in flight to the bulkhead size themselves.
+ */
+@Component
+public class AsyncACAPYClient {
+
+    private static final String API_KEY_HEADER = "X-API-KEY";
+
+    private static final String NAME_PREFIX = "acapy.";
+
+    /**
+     * The reactive bulkhead rejects calls instead of waiting, so it is not shared with the blocking client, whose
+     * callers could fill it at any time.
+     */
+    public static final String BULKHEAD = "acapy.async";
+
+    @Autowired
+    WebClient.Builder webClientBuilder;
+
+    @Autowired
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    RetryRegistry retryRegistry;
+
+    @Value("${ssibk.company.controller.agent.apiurl}")
+    String apiUrl;
+
+    @Value("${ssibk.company.controller.agent.http.max_connections:100}")
+    int maxConnections;
+
+    @Value("${ssibk.company.controller.agent.http.connect_timeout_ms:2000}")
+    int connectTimeoutMillis;
+
+    @Value("${ssibk.company.controller.agent.http.get_read_timeout_ms:5000}")
+    long getReadTimeoutMillis;
+
+    @Value("${ssibk.company.controller.agent.http.post_read_timeout_ms:15000}")
+    long postReadTimeoutMillis;
+
+    @Value("${ssibk.company.controller.agent.http.delete_read_timeout_ms:5000}")
+    long deleteReadTimeoutMillis;
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.wait_in_open_state_ms:30000}")
+    long waitInOpenStateMillis;
+
+    private WebClient webClient;
+
+    private ScheduledExecutorService retryScheduler;
+
+    @PostConstruct
+    public void init() {
+        HttpClient httpClient = HttpClient.create(ConnectionProvider.create("acapy", maxConnections))
+            .tcpConfiguration(tcpClient -> tcpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis));
+        this.webClient = this.webClientBuilder.clone()
+            .baseUrl(apiUrl)
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .build();
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("acapy-retry-"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.retryScheduler.shutdownNow();
+    }
+
+    public CompletableFuture<InvitationResultDTO> createInvitation(String apiKey, String alias, InvitationRequestDTO invitationRequestDTO) {
+        return this.call("create-invitation", false, postReadTimeoutMillis, this.webClient.post()
+            .uri(uri -> uri.path("/connections/create-invitation").queryParam("alias", alias).build())
+            .header(API_KEY_HEADER, apiKey)
+            .bodyValue(invitationRequestDTO)
+            .retrieve()
+            .bodyToMono(InvitationResultDTO.class));
+    }
+
+    public CompletableFuture<Void> sendCredentialOffer(String apiKey, CredentialOfferRequestDTO credentialOfferRequestDTO) {
+        return this.call("send-offer", false, postReadTimeoutMillis, this.webClient.post()
+            .uri("/issue-credential/send-offer")
+            .header(API_KEY_HEADER, apiKey)
+            .bodyValue(credentialOfferRequestDTO)
+            .retrieve()
+            .bodyToMono(Void.class));
+    }
+
+    public CompletableFuture<ConnectionRecordDTO> getConnectionRecordById(String apiKey, String connectionId) {
+        return this.call("get-connection", true, getReadTimeoutMillis, this.webClient.get()
+            .uri("/connections/{connection_id}", connectionId)
+            .header(API_KEY_HEADER, apiKey)
+            .retrieve()
+            .bodyToMono(ConnectionRecordDTO.class));
+    }
+
+    public CompletableFuture<ConnectionsRecordDTO> getConnectionsRecordByAlias(String apiKey, String alias) {
+        return this.call("get-connections", true, getReadTimeoutMillis, this.webClient.get()
+            .uri(uri -> uri.path("/connections").queryParam("alias", alias).build())
+            .header(API_KEY_HEADER, apiKey)
+            .retrieve()
+            .bodyToMono(ConnectionsRecordDTO.class));
+    }
+
+    public CompletableFuture<IssueCredentialRecordDTO> getIssueCredentialRecord(String apiKey, String cred_ex_id) {
+        return this.call("get-issue-credential-record", true, getReadTimeoutMillis, this.webClient.get()
+            .uri("/issue-credential/records/{cred_ex_id}", cred_ex_id)
+            .header(API_KEY_HEADER, apiKey)
+            .retrieve()
+            .bodyToMono(IssueCredentialRecordDTO.class));
+    }
+
+    public CompletableFuture<IssueCredentialRecordDTO> deleteIssueCredentialRecord(String apiKey, String cred_ex_id) {
+        return this.call("delete-issue-credential-record", false, deleteReadTimeoutMillis, this.webClient.delete()
+            .uri("/issue-credential/records/{cred_ex_id}", cred_ex_id)
+            .header(API_KEY_HEADER, apiKey)
+            .retrieve()
+            .bodyToMono(IssueCredentialRecordDTO.class));
+    }
+
+    public CompletableFuture<Void> revokeCredential(String apiKey, RevocationRequestDTO revocationRequestDTO) {
+        return this.call("revoke", false, postReadTimeoutMillis, this.webClient.post()
+            .uri("/revocation/revoke")
+            .header(API_KEY_HEADER, apiKey)
+            .bodyValue(revocationRequestDTO)
+            .retrieve()
+            .bodyToMono(Void.class));
+    }
+
+    /**
+     * Subscribe to a call with the timeout of its HTTP method, through the bulkhead, the circuit breaker of the
+     * endpoint and, if idempotent, its retry, like {@link ResilientACAPYClient}. The retries wait on the retry
+     * scheduler without blocking a thread, and every attempt subscribes to the call again.
+     *
+     * The {@code RetryOperator} of resilience4j-reactor is not used: it needs a newer Reactor than the one of Spring
+     * Boot.
+     */
+    private <T> CompletableFuture<T> call(String endpoint, boolean idempotent, long timeoutMillis, Mono<T> call) {
+        Mono<T> decorated = call
+            .timeout(Duration.ofMillis(timeoutMillis))
+            .transform(CircuitBreakerOperator.of(this.circuitBreakerRegistry.circuitBreaker(NAME_PREFIX + endpoint)))
+            .transform(BulkheadOperator.of(this.bulkheadRegistry.bulkhead(BULKHEAD)))
+            .onErrorMap(CallNotPermittedException.class, e -> new AgentUnavailableException(
+                "The agent is not available at the moment, please retry later.",
+                TimeUnit.MILLISECONDS.toSeconds(waitInOpenStateMillis), e))
+            .onErrorMap(BulkheadFullException.class, e -> new AgentUnavailableException(
+                "Too many requests to the agent at the moment, please retry later.", 1, e));
+        if (!idempotent) {
+            return decorated.toFuture();
+        }
+
+        Retry retry = this.retryRegistry.retry(NAME_PREFIX + endpoint);
+        return Retry.decorateCompletionStage(retry, this.retryScheduler, decorated::toFuture).get().toCompletableFuture();
+    }
+}
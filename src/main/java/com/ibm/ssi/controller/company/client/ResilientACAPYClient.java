@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.ibm.ssi.controller.company.client.model.ConnectionRecordDTO;
+import com.ibm.ssi.controller.company.client.model.ConnectionsRecordDTO;
+import com.ibm.ssi.controller.company.client.model.CredentialOfferRequestDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationRequestDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationResultDTO;
+import com.ibm.ssi.controller.company.client.model.IssueCredentialRecordDTO;
+import com.ibm.ssi.controller.company.client.model.RevocationRequestDTO;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@link ACAPYClient} used by the application: it decorates the Feign client with a circuit breaker per
+ * endpoint, a bulkhead shared by all endpoints, and retries for the idempotent {@code GET} endpoints.
+ *
+ * If the circuit breaker of an endpoint is open, or the bulkhead is full, the call fails at once with
+ * {@link AgentUnavailableException} instead of waiting for the agent.
+ */
+@Primary
+@Component
+public class ResilientACAPYClient implements ACAPYClient {
+
+    public static final String DELEGATE = "acapyFeignClient";
+
+    private static final String NAME_PREFIX = "acapy.";
+
+    @Autowired
+    @Qualifier(DELEGATE)
+    ACAPYClient delegate;
+
+    @Autowired
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    RetryRegistry retryRegistry;
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.wait_in_open_state_ms:30000}")
+    long waitInOpenStateMillis;
+
+    @Override
+    public InvitationResultDTO createInvitation(String apiKey, String alias, InvitationRequestDTO invitationRequestDTO) {
+        return this.call("create-invitation", false, () -> this.delegate.createInvitation(apiKey, alias, invitationRequestDTO));
+    }
+
+    @Override
+    public void sendCredentialOffer(String apiKey, CredentialOfferRequestDTO credentialOfferRequestDTO) {
+        this.call("send-offer", false, () -> {
+            this.delegate.sendCredentialOffer(apiKey, credentialOfferRequestDTO);
+            return null;
+        });
+    }
+
+    @Override
+    public ConnectionRecordDTO getConnectionRecordById(String apiKey, String connectionId) {
+        return this.call("get-connection", true, () -> this.delegate.getConnectionRecordById(apiKey, connectionId));
+    }
+
+    @Override
+    public ConnectionsRecordDTO getConnectionsRecordByAlias(String apiKey, String alias) {
+        return this.call("get-connections", true, () -> this.delegate.getConnectionsRecordByAlias(apiKey, alias));
+    }
+
+    @Override
+    public IssueCredentialRecordDTO getIssueCredentialRecord(String apiKey, String cred_ex_id) {
+        return this.call("get-issue-credential-record", true, () -> this.delegate.getIssueCredentialRecord(apiKey, cred_ex_id));
+    }
+
+    @Override
+    public IssueCredentialRecordDTO deleteIssueCredentialRecord(String apiKey, String cred_ex_id) {
+        return this.call("delete-issue-credential-record", false, () -> this.delegate.deleteIssueCredentialRecord(apiKey, cred_ex_id));
+    }
+
+    @Override
+    public void revokeCredential(String apiKey, RevocationRequestDTO revocationRequestDTO) {
+        this.call("revoke", false, () -> {
+            this.delegate.revokeCredential(apiKey, revocationRequestDTO);
+            return null;
+        });
+    }
+
+    /**
+     * Run a call to the agent through the bulkhead, the circuit breaker of the endpoint and, if idempotent, its
+     * retry. The retry is outermost, so every attempt is counted by the circuit breaker and takes a permit of the
+     * bulkhead, and no attempt is made once the circuit breaker is open. The bulkhead is outside the circuit breaker,
+     * so a call rejected by the bulkhead never reaches the agent and is not counted by the circuit breaker.
+     */
+    private <T> T call(String endpoint, boolean idempotent, Supplier<T> call) {
+        Bulkhead bulkhead = this.bulkheadRegistry.bulkhead("acapy");
+        CircuitBreaker circuitBreaker = this.circuitBreakerRegistry.circuitBreaker(NAME_PREFIX + endpoint);
+
+        Supplier<T> decorated = Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, call));
+        if (idempotent) {
+            decorated = Retry.decorateSupplier(this.retryRegistry.retry(NAME_PREFIX + endpoint), decorated);
+        }
+
+        try {
+            return decorated.get();
+        } catch (CallNotPermittedException e) {
+            throw new AgentUnavailableException("The agent is not available at the moment, please retry later.",
+                TimeUnit.MILLISECONDS.toSeconds(waitInOpenStateMillis), e);
+        } catch (BulkheadFullException e) {
+            throw new AgentUnavailableException("Too many requests to the agent at the moment, please retry later.", 1, e);
+        }
+    }
+}
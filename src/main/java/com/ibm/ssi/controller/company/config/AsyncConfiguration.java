@@ -17,19 +17,27 @@
 package com.ibm.ssi.controller.company.config;
 
 import io.github.jhipster.async.ExceptionHandlingAsyncTaskExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
 import org.springframework.aop.interceptor.SimpleAsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableAsync
@@ -56,6 +64,38 @@ public class AsyncConfiguration implements AsyncConfigurer {
         return new ExceptionHandlingAsyncTaskExecutor(executor);
     }
 
+    /**
+     * Executor for the invitations of bulk exports, which mostly wait for the agent. At most {@code parallelism}
+     * invitations are created at once, further ones wait in the queue.
+     */
+    @Bean(name = "invitationExportExecutor")
+    public Executor invitationExportExecutor(
+            @Value("${ssibk.company.controller.invitation_export.parallelism:8}") int parallelism) {
+        log.debug("Creating Invitation Export Task Executor");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(taskExecutionProperties.getPool().getQueueCapacity());
+        executor.setThreadNamePrefix("invitation-export-");
+        return new ExceptionHandlingAsyncTaskExecutor(executor);
+    }
+
+    /**
+     * Executor for the CPU-bound rendering of invitations, sized to the number of cores. Its queue is bounded and
+     * further tasks are rejected instead of queued. The queue depth and the time tasks wait in the queue are
+     * published as {@code executor.queued} and {@code executor.idle} metrics with the tag {@code name=rendering}.
+     */
+    @Bean(name = "renderingExecutor", destroyMethod = "shutdown")
+    public ExecutorService renderingExecutor(MeterRegistry meterRegistry,
+            @Value("${ssibk.company.controller.rendering.queue_capacity:100}") int queueCapacity) {
+        log.debug("Creating Rendering Executor");
+        int threads = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("rendering-"),
+            new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "rendering");
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return new SimpleAsyncUncaughtExceptionHandler();
@@ -18,11 +18,15 @@ package com.ibm.ssi.controller.company.config;
 
 import java.time.Duration;
 
+import com.ibm.ssi.controller.company.service.ConnectionAliasService;
+
 import org.ehcache.config.builders.*;
 import org.ehcache.jsr107.Eh107Configuration;
 
 import io.github.jhipster.config.JHipsterProperties;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
 import org.springframework.cache.interceptor.KeyGenerator;
@@ -36,6 +40,10 @@ import org.springframework.context.annotation.*;
 public class CacheConfiguration {
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
+
+    @Value("${ssibk.company.controller.connection_alias_cache.max_entries:10000}")
+    private long connectionAliasCacheMaxEntries;
+
     public CacheConfiguration(JHipsterProperties jHipsterProperties) {
         JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
 
@@ -46,6 +54,29 @@ public class CacheConfiguration {
                 .build());
     }
 
+    /**
+     * The connection aliases are only a cache of the aliases stored in MongoDB, so a bounded heap tier is enough.
+     * Statistics are enabled, so the hits and misses are published as {@code cache.gets} metrics.
+     */
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            createCache(cm, ConnectionAliasService.CONNECTION_ALIAS_CACHE, Eh107Configuration.fromEhcacheCacheConfiguration(
+                CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class,
+                    ResourcePoolsBuilder.heap(connectionAliasCacheMaxEntries)).build()));
+        };
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName,
+            javax.cache.configuration.Configuration<Object, Object> cacheConfiguration) {
+        // the cache manager is shared by all application contexts of the JVM, destroying an existing cache would
+        // close it under the context that created it
+        if (cm.getCache(cacheName) == null) {
+            cm.createCache(cacheName, cacheConfiguration);
+        }
+        cm.enableStatistics(cacheName, true);
+    }
+
     @Autowired(required = false)
     public void setGitProperties(GitProperties gitProperties) {
         this.gitProperties = gitProperties;
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.config;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP transport of the Feign clients ({@code ACAPYClient} and {@code TRELLOClient}).
+ *
+ * Instead of Feign's default client, which opens a {@code HttpURLConnection} per call, requests go through a pooled
+ * Apache HttpClient. Connections are kept alive and reused for up to {@code max_connections_per_route} concurrent
+ * calls per host. The usage of the pool is published as {@code httpcomponents.httpclient.pool.*} metrics with the
+ * tag {@code httpclient=agent}.
+ */
+@Configuration
+public class FeignConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(FeignConfiguration.class);
+
+    @Value("${ssibk.company.controller.agent.http.max_connections:100}")
+    private int maxConnections;
+
+    @Value("${ssibk.company.controller.agent.http.max_connections_per_route:20}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${ssibk.company.controller.agent.http.keep_alive_ms:30000}")
+    private long keepAliveMillis;
+
+    @Value("${ssibk.company.controller.agent.http.connect_timeout_ms:2000}")
+    private int connectTimeoutMillis;
+
+    @Value("${ssibk.company.controller.agent.http.get_read_timeout_ms:5000}")
+    private int getReadTimeoutMillis;
+
+    @Value("${ssibk.company.controller.agent.http.post_read_timeout_ms:15000}")
+    private int postReadTimeoutMillis;
+
+    @Value("${ssibk.company.controller.agent.http.delete_read_timeout_ms:5000}")
+    private int deleteReadTimeoutMillis;
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager feignConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        // a connection closed by the agent while idle is detected before it is reused
+        connectionManager.setValidateAfterInactivity(2000);
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "agent").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    /**
+     * Connections are kept for the {@code Keep-Alive} duration sent by the server, or {@code keep_alive_ms} if it
+     * sends none, and evicted once idle for that long.
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient feignHttpClient(PoolingHttpClientConnectionManager feignConnectionManager) {
+        log.debug("Creating pooled HTTP client for Feign: {} connections, {} per route", maxConnections, maxConnectionsPerRoute);
+        return HttpClients.custom()
+            .setConnectionManager(feignConnectionManager)
+            .setKeepAliveStrategy((response, context) -> {
+                long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return keepAlive > 0 ? keepAlive : keepAliveMillis;
+            })
+            .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+            .evictExpiredConnections()
+            .disableCookieManagement()
+            .useSystemProperties()
+            .build();
+    }
+
+    /**
+     * Reads are idempotent and answered quickly by the agent, so they time out sooner than the writes.
+     */
+    @Bean
+    public Client feignClient(CloseableHttpClient feignHttpClient) {
+        Map<Request.HttpMethod, Request.Options> options = new EnumMap<>(Request.HttpMethod.class);
+        options.put(Request.HttpMethod.GET, new Request.Options(connectTimeoutMillis, TimeUnit.MILLISECONDS,
+            getReadTimeoutMillis, TimeUnit.MILLISECONDS, true));
+        options.put(Request.HttpMethod.POST, new Request.Options(connectTimeoutMillis, TimeUnit.MILLISECONDS,
+            postReadTimeoutMillis, TimeUnit.MILLISECONDS, true));
+        options.put(Request.HttpMethod.DELETE, new Request.Options(connectTimeoutMillis, TimeUnit.MILLISECONDS,
+            deleteReadTimeoutMillis, TimeUnit.MILLISECONDS, true));
+        return new MethodTimeoutClient(new ApacheHttpClient(feignHttpClient), options);
+    }
+
+    /**
+     * Applies the timeouts of the HTTP method of a request, and the timeouts of the Feign client otherwise.
+     */
+    static final class MethodTimeoutClient implements Client {
+
+        private final Client delegate;
+
+        private final Map<Request.HttpMethod, Request.Options> options;
+
+        MethodTimeoutClient(Client delegate, Map<Request.HttpMethod, Request.Options> options) {
+            this.delegate = delegate;
+            this.options = options;
+        }
+
+        @Override
+        public Response execute(Request request, Request.Options defaultOptions) throws IOException {
+            return this.delegate.execute(request, this.options.getOrDefault(request.httpMethod(), defaultOptions));
+        }
+    }
+}
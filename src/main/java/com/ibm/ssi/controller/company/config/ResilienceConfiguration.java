@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.config;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import feign.FeignException;
+
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedRetryMetrics;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * Circuit breakers, bulkhead and retries for the calls to the agent, see
+ * {@link com.ibm.ssi.controller.company.client.ResilientACAPYClient} and
+ * {@link com.ibm.ssi.controller.company.client.AsyncACAPYClient}.
+ *
+ * Only unavailability of the agent counts as failure: connection errors, timeouts and {@code 5xx} responses.
+ * The state, calls and rejections are published as {@code resilience4j.*} metrics, and every state transition of
+ * a circuit breaker is logged and counted as {@code resilience4j.circuitbreaker.transitions}.
+ */
+@Configuration
+public class ResilienceConfiguration {
+
+    private final Logger log = LoggerFactory.getLogger(ResilienceConfiguration.class);
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.failure_rate_threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.slow_call_rate_threshold:100}")
+    private float slowCallRateThreshold;
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.slow_call_duration_ms:5000}")
+    private long slowCallDurationMillis;
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.sliding_window_size:20}")
+    private int slidingWindowSize;
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.minimum_calls:10}")
+    private int minimumCalls;
+
+    @Value("${ssibk.company.controller.agent.resilience.circuit_breaker.wait_in_open_state_ms:30000}")
+    private long waitInOpenStateMillis;
+
+    @Value("${ssibk.company.controller.agent.resilience.bulkhead.max_concurrent_calls:32}")
+    private int maxConcurrentCalls;
+
+    @Value("${ssibk.company.controller.agent.resilience.bulkhead.max_wait_ms:500}")
+    private long bulkheadMaxWaitMillis;
+
+    @Value("${ssibk.company.controller.agent.resilience.retry.max_attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${ssibk.company.controller.agent.resilience.retry.initial_backoff_ms:200}")
+    private long retryInitialBackoffMillis;
+
+    @Value("${ssibk.company.controller.agent.resilience.retry.multiplier:2}")
+    private double retryMultiplier;
+
+    @Value("${ssibk.company.controller.agent.resilience.retry.randomization:0.5}")
+    private double retryRandomization;
+
+    /**
+     * Whether an exception of a call means that the agent is unavailable, rather than that the request was wrong.
+     */
+    public static boolean isAgentUnavailable(Throwable e) {
+        if (e instanceof FeignException) {
+            int status = ((FeignException) e).status();
+            // no status for connection errors and timeouts
+            return status < 0 || status >= 500;
+        }
+        if (e instanceof WebClientResponseException) {
+            return ((WebClientResponseException) e).getRawStatusCode() >= 500;
+        }
+        // connection errors and timeouts of the asynchronous client
+        return e instanceof IOException || e instanceof TimeoutException;
+    }
+
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallRateThreshold(slowCallRateThreshold)
+            .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMillis))
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(minimumCalls)
+            .waitDurationInOpenState(Duration.ofMillis(waitInOpenStateMillis))
+            .recordException(ResilienceConfiguration::isAgentUnavailable)
+            // rejected before the call, it says nothing about the agent
+            .ignoreExceptions(BulkheadFullException.class)
+            .build());
+
+        registry.getEventPublisher().onEntryAdded(event -> {
+            CircuitBreaker circuitBreaker = event.getAddedEntry();
+            circuitBreaker.getEventPublisher().onStateTransition(transition -> {
+                log.warn("circuit breaker {} changed: {}", circuitBreaker.getName(), transition.getStateTransition());
+                meterRegistry.counter("resilience4j.circuitbreaker.transitions", "name", circuitBreaker.getName(),
+                    "from", transition.getStateTransition().getFromState().name(),
+                    "to", transition.getStateTransition().getToState().name()).increment();
+            });
+        });
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ofMillis(bulkheadMaxWaitMillis))
+            .build());
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    /**
+     * Retries with exponential backoff and jitter, meant for idempotent calls only.
+     */
+    @Bean
+    public RetryRegistry retryRegistry(MeterRegistry meterRegistry) {
+        RetryRegistry registry = RetryRegistry.of(RetryConfig.custom()
+            .maxAttempts(retryMaxAttempts)
+            .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(retryInitialBackoffMillis, retryMultiplier,
+                retryRandomization))
+            .retryOnException(ResilienceConfiguration::isAgentUnavailable)
+            .build());
+        TaggedRetryMetrics.ofRetryRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.config.dbmigrations;
+
+import com.github.mongobee.changeset.ChangeLog;
+import com.github.mongobee.changeset.ChangeSet;
+import com.ibm.ssi.controller.company.domain.Employee;
+import com.ibm.ssi.controller.company.domain.IssuedCredential;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+/**
+ * Creates the indexes of the list queries and of the CSV import.
+ *
+ * They are not declared with {@code @Indexed} or {@code @CompoundIndex}, as Spring Data resolves such definitions with the security
+ * evaluation context, which fails at startup without an authenticated user.
+ */
+@ChangeLog(order = "002")
+public class IndexMigration {
+
+    @ChangeSet(order = "01", author = "initiator", id = "01-addIssuedCredentialIssuanceDateIndex")
+    public void addIssuedCredentialIssuanceDateIndex(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(IssuedCredential.class).ensureIndex(
+            new CompoundIndexDefinition(new Document("issuance_date", 1).append("_id", 1)).named("issuance_date_id"));
+    }
+
+    @ChangeSet(order = "02", author = "initiator", id = "02-addEmployeeFilterIndexes")
+    public void addEmployeeFilterIndexes(MongoTemplate mongoTemplate) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(Employee.class);
+        indexOperations.ensureIndex(new CompoundIndexDefinition(
+            new Document("firmName", 1).append("firmCity", 1).append("lastName", 1)).named("firmName_firmCity_lastName"));
+        indexOperations.ensureIndex(new CompoundIndexDefinition(
+            new Document("firmCity", 1).append("lastName", 1)).named("firmCity_lastName"));
+        indexOperations.ensureIndex(new CompoundIndexDefinition(
+            new Document("lastName", 1).append("firstName", 1)).named("lastName_firstName"));
+    }
+
+    @ChangeSet(order = "03", author = "initiator", id = "03-addEmployeeEmailIndex")
+    public void addEmployeeEmailIndex(MongoTemplate mongoTemplate) {
+        mongoTemplate.indexOps(Employee.class).ensureIndex(new Index("email", Sort.Direction.ASC).named("email"));
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.domain;
+
+import java.io.Serializable;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The alias, i.e. the employee id, of a connection of the agent, as reported by the connections webhook.
+ */
+@org.springframework.data.mongodb.core.mapping.Document(collection = "connection_aliases")
+public class ConnectionAlias implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    private String connectionId;
+
+    @Field("alias")
+    private String alias;
+
+    public ConnectionAlias() {
+    }
+
+    public ConnectionAlias(String connectionId, String alias) {
+        this.connectionId = connectionId;
+        this.alias = alias;
+    }
+
+    public String getConnectionId() {
+        return connectionId;
+    }
+
+    public void setConnectionId(String connectionId) {
+        this.connectionId = connectionId;
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public void setAlias(String alias) {
+        this.alias = alias;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionAlias{" +
+            "connectionId='" + connectionId + '\'' +
+            ", alias='" + alias + '\'' +
+            "}";
+    }
+}
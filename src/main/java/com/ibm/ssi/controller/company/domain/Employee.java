@@ -18,6 +18,7 @@ package com.ibm.ssi.controller.company.domain;
 
 import com.ibm.ssi.controller.company.service.dto.AddressDTO;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import javax.validation.constraints.Email;
@@ -63,6 +64,15 @@ public class Employee extends AbstractAuditingEntity {
     @Field("firmCity")
     private String firmCity;
 
+    @Version
+    private Long version;
+
+    /**
+     * Hash of the business fields as of the last CSV import, used to skip unchanged rows on a re-import.
+     */
+    @Field("contentHash")
+    private String contentHash;
+
     public static long getSerialversionuid() {
         return serialVersionUID;
     }
@@ -131,6 +141,22 @@ public class Employee extends AbstractAuditingEntity {
 
     public void setFirmCity(String firmCity) { this.firmCity = firmCity; }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public Employee() {
     }
 
@@ -152,6 +178,6 @@ public class Employee extends AbstractAuditingEntity {
     public String toString() {
         return "Employee [firmName=" + firmName + ", firmSubject=" + firmSubject + ", firmPostalCode=" + firmPostalCode +
                 ", firmStreet=" + firmStreet + ", firmCity=" + firmCity +", email=" + email + ", firstName=" + firstName +
-                ", id=" + employeeId + ", lastName=" + lastName + "]";
+                ", id=" + employeeId + ", lastName=" + lastName + ", version=" + version + "]";
     }
 }
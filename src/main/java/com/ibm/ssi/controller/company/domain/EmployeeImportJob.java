@@ -0,0 +1,175 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.domain;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * An asynchronous import of employees and its progress.
+ */
+@org.springframework.data.mongodb.core.mapping.Document(collection = "employee_import_jobs")
+public class EmployeeImportJob extends AbstractAuditingEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    @Id
+    private String id;
+
+    @Field("status")
+    private Status status;
+
+    @Field("file_name")
+    private String fileName;
+
+    @Field("parsed")
+    private int parsed;
+
+    @Field("inserted")
+    private int inserted;
+
+    @Field("incremental")
+    private boolean incremental;
+
+    @Field("updated")
+    private int updated;
+
+    @Field("skipped")
+    private int skipped;
+
+    @Field("failed")
+    private int failed;
+
+    @Field("started_date")
+    private Instant startedDate;
+
+    @Field("finished_date")
+    private Instant finishedDate;
+
+    @Field("error")
+    private String error;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public int getParsed() {
+        return parsed;
+    }
+
+    public void setParsed(int parsed) {
+        this.parsed = parsed;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public Instant getStartedDate() {
+        return startedDate;
+    }
+
+    public void setStartedDate(Instant startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public Instant getFinishedDate() {
+        return finishedDate;
+    }
+
+    public void setFinishedDate(Instant finishedDate) {
+        this.finishedDate = finishedDate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeImportJob [id=" + id + ", status=" + status + ", fileName=" + fileName + ", parsed=" + parsed
+            + ", incremental=" + incremental + ", inserted=" + inserted
+            + ", updated=" + updated + ", skipped=" + skipped + ", failed=" + failed + ", startedDate=" + startedDate
+            + ", finishedDate=" + finishedDate + ", error=" + error + "]";
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.domain;
+
+import java.time.Instant;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The delivery of an invitation e-mail to an employee over SMTP.
+ */
+@org.springframework.data.mongodb.core.mapping.Document(collection = "invitation_deliveries")
+public class InvitationDelivery extends AbstractAuditingEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Status {
+        QUEUED, RETRYING, SENT, FAILED
+    }
+
+    @Id
+    private String id;
+
+    @Field("employee_id")
+    private String employeeId;
+
+    @Field("status")
+    private Status status;
+
+    @Field("attempts")
+    private int attempts;
+
+    @Field("sent_date")
+    private Instant sentDate;
+
+    @Field("error")
+    private String error;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getSentDate() {
+        return sentDate;
+    }
+
+    public void setSentDate(Instant sentDate) {
+        this.sentDate = sentDate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "InvitationDelivery [id=" + id + ", employeeId=" + employeeId + ", status=" + status + ", attempts="
+            + attempts + ", sentDate=" + sentDate + ", error=" + error + "]";
+    }
+}
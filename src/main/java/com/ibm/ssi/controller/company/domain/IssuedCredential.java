@@ -21,6 +21,7 @@ import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.Date;
 
+@org.springframework.data.mongodb.core.mapping.Document(collection = "issuedCredential")
 public class IssuedCredential extends AbstractAuditingEntity {
 
     private static final long serialVersionUID = 1L;
@@ -16,10 +16,29 @@
 
 package com.ibm.ssi.controller.company.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import com.ibm.ssi.controller.company.domain.Employee;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Spring Data MongoDB repository for the {@link Employee} entity.
+ */
 @Repository
-public interface EmployeeRepository extends MongoRepository<Employee, String> {
+public interface EmployeeRepository extends MongoRepository<Employee, String>, EmployeeRepositoryCustom {
+
+    /**
+     * Returns the stored employees among the given ids, with only their id read.
+     */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ '_id': 1 }")
+    List<Employee> findIdsByEmployeeIdIn(Collection<String> employeeIds);
+
+    /**
+     * Returns the stored employees with one of the given emails, with only their id, email and content hash read.
+     */
+    @Query(value = "{ 'email': { '$in': ?0 } }", fields = "{ '_id': 1, 'email': 1, 'contentHash': 1 }")
+    List<Employee> findContentHashesByEmailIn(Collection<String> emails);
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.ibm.ssi.controller.company.domain.Employee;
+import com.mongodb.bulk.BulkWriteError;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Custom queries of the {@link EmployeeRepository} that cannot be expressed as derived queries.
+ */
+public interface EmployeeRepositoryCustom {
+
+    /**
+     * Find a page of employees matching all given filters. A {@code null} filter is not applied.
+     *
+     * @param firmName the exact firm name.
+     * @param firmCity the exact firm city.
+     * @param lastName the exact last name.
+     * @param pageable the pagination and sorting information.
+     * @return the page of matching employees.
+     */
+    Page<Employee> findAllByFilter(String firmName, String firmCity, String lastName, Pageable pageable);
+
+    /**
+     * Same as {@link #findAllByFilter(String, String, String, Pageable)}, but the returned employees only hold
+     * their id, first name and last name. All other fields are excluded from the query result by the server.
+     */
+    Page<Employee> findSummariesByFilter(String firmName, String firmCity, String lastName, Pageable pageable);
+
+    /**
+     * Find the ids of the employees matching all given filters, ordered by id. A {@code null} filter is not applied.
+     * Only the ids are read from the server.
+     *
+     * @param limit the maximum number of ids to return.
+     * @return the ids of the matching employees.
+     */
+    List<String> findIdsByFilter(String firmName, String firmCity, String lastName, int limit);
+
+    /**
+     * Find which of the given ids belong to an employee. Only the ids are read from the server.
+     *
+     * @param ids the ids to look up.
+     * @return the ids of the existing employees.
+     */
+    Set<String> findExistingIds(Collection<String> ids);
+
+    /**
+     * Insert all employees with a single unordered bulk write. A failing insert (e.g. a duplicate id) does not
+     * prevent the others.
+     *
+     * The documents are written straight to the collection, so the mapping events and entity callbacks are not
+     * triggered for each employee: the employees are not validated by the {@code ValidatingMongoEventListener} and
+     * must have been validated by the caller. The auditing fields are stamped once for the whole batch.
+     *
+     * @param employees the validated employees to insert.
+     * @return the errors of the failed inserts, their index refers to the position in {@code employees}.
+     */
+    List<BulkWriteError> insertAllUnordered(List<Employee> employees);
+
+    /**
+     * Update the fields of an existing employee in a single atomic operation. If the given employee has a
+     * version, the update only applies if the stored employee still has this version.
+     *
+     * @param employee the employee with the new field values.
+     * @return the updated employee with its incremented version, or {@code null} if no employee with the given id
+     *         (and version) exists.
+     */
+    Employee updateIfExists(Employee employee);
+
+    /**
+     * Update the fields and the content hash of existing employees, identified by their id, with a single unordered
+     * bulk write. The version of each employee is incremented.
+     *
+     * @param employees the employees with the new field values.
+     * @return the errors of the failed updates, their index refers to the position in {@code employees}.
+     */
+    List<BulkWriteError> updateAllUnordered(List<Employee> employees);
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.repository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.ibm.ssi.controller.company.domain.Employee;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.UpdateOneModel;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+/**
+ * Implementation of {@link EmployeeRepositoryCustom}, picked up by Spring Data through its name.
+ */
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+    @Autowired
+    MongoTemplate mongoTemplate;
+
+    @Autowired
+    AuditorAware<String> auditorAware;
+
+    @Override
+    public Page<Employee> findAllByFilter(String firmName, String firmCity, String lastName, Pageable pageable) {
+        return findPage(filterQuery(firmName, firmCity, lastName), pageable);
+    }
+
+    @Override
+    public Page<Employee> findSummariesByFilter(String firmName, String firmCity, String lastName, Pageable pageable) {
+        Query query = filterQuery(firmName, firmCity, lastName);
+        query.fields().include("firstName").include("lastName");
+        return findPage(query, pageable);
+    }
+
+    @Override
+    public List<String> findIdsByFilter(String firmName, String firmCity, String lastName, int limit) {
+        Query query = filterQuery(firmName, firmCity, lastName).with(Sort.by("employeeId")).limit(limit);
+        query.fields().include("employeeId");
+        return this.mongoTemplate.find(query, Employee.class).stream().map(Employee::getEmployeeId).collect(Collectors.toList());
+    }
+
+    @Override
+    public Set<String> findExistingIds(Collection<String> ids) {
+        Query query = new Query(Criteria.where("employeeId").in(ids));
+        query.fields().include("employeeId");
+        return this.mongoTemplate.find(query, Employee.class).stream().map(Employee::getEmployeeId).collect(Collectors.toSet());
+    }
+
+    @Override
+    public List<BulkWriteError> insertAllUnordered(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // the auditor is resolved once per batch instead of once per document by the auditing callback
+        String auditor = this.auditorAware.getCurrentAuditor().orElse(null);
+        Instant now = Instant.now();
+        MongoConverter converter = this.mongoTemplate.getConverter();
+        List<Document> documents = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            employee.setCreatedBy(auditor);
+            employee.setCreatedDate(now);
+            employee.setLastModifiedBy(auditor);
+            employee.setLastModifiedDate(now);
+            if (employee.getVersion() == null) {
+                employee.setVersion(0L);
+            }
+            Document document = new Document();
+            converter.write(employee, document);
+            documents.add(document);
+        }
+
+        try {
+            this.mongoTemplate.getCollection(this.mongoTemplate.getCollectionName(Employee.class))
+                .insertMany(documents, new InsertManyOptions().ordered(false));
+            return Collections.emptyList();
+        } catch (MongoBulkWriteException e) {
+            return e.getWriteErrors();
+        }
+    }
+
+    @Override
+    public Employee updateIfExists(Employee employee) {
+        Query query = Query.query(Criteria.where("employeeId").is(employee.getEmployeeId()));
+        if (employee.getVersion() != null) {
+            query.addCriteria(Criteria.where("version").is(employee.getVersion()));
+        }
+
+        // the auditing fields are stamped here, as the auditing callbacks only apply to saved entities; the content
+        // hash of the last CSV import no longer matches the edited fields, so the next import updates the employee
+        Update update = businessFieldsUpdate(employee, this.auditorAware.getCurrentAuditor().orElse(null), Instant.now())
+            .unset("contentHash");
+
+        return this.mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Employee.class);
+    }
+
+    @Override
+    public List<BulkWriteError> updateAllUnordered(List<Employee> employees) {
+        if (employees.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String auditor = this.auditorAware.getCurrentAuditor().orElse(null);
+        Instant now = Instant.now();
+        // like the inserts, the updates are written straight to the collection: the bulk operations of the template
+        // translate a failed write into an exception for the whole batch instead of reporting the failed updates
+        UpdateMapper updateMapper = new UpdateMapper(this.mongoTemplate.getConverter());
+        MongoPersistentEntity<?> entity = this.mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(Employee.class);
+        List<UpdateOneModel<Document>> updates = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            Update update = businessFieldsUpdate(employee, auditor, now).set("contentHash", employee.getContentHash());
+            updates.add(new UpdateOneModel<>(Filters.eq("_id", employee.getEmployeeId()),
+                updateMapper.getMappedObject(update.getUpdateObject(), entity)));
+        }
+
+        try {
+            this.mongoTemplate.getCollection(this.mongoTemplate.getCollectionName(Employee.class))
+                .bulkWrite(updates, new BulkWriteOptions().ordered(false));
+            return Collections.emptyList();
+        } catch (MongoBulkWriteException e) {
+            return e.getWriteErrors();
+        }
+    }
+
+    private static Update businessFieldsUpdate(Employee employee, String auditor, Instant now) {
+        return new Update()
+            .set("firstName", employee.getFirstName())
+            .set("lastName", employee.getLastName())
+            .set("email", employee.getEmail())
+            .set("firmName", employee.getFirmName())
+            .set("firmSubject", employee.getFirmSubject())
+            .set("firmStreet", employee.getFirmStreet())
+            .set("firmPostalCode", employee.getFirmPostalCode())
+            .set("firmCity", employee.getFirmCity())
+            .set("lastModifiedBy", auditor)
+            .set("lastModifiedDate", now)
+            .inc("version", 1);
+    }
+
+    private Query filterQuery(String firmName, String firmCity, String lastName) {
+        Query query = new Query();
+        if (firmName != null) {
+            query.addCriteria(Criteria.where("firmName").is(firmName));
+        }
+        if (firmCity != null) {
+            query.addCriteria(Criteria.where("firmCity").is(firmCity));
+        }
+        if (lastName != null) {
+            query.addCriteria(Criteria.where("lastName").is(lastName));
+        }
+        return query;
+    }
+
+    private Page<Employee> findPage(Query query, Pageable pageable) {
+        List<Employee> employees = this.mongoTemplate.find(Query.of(query).with(pageable), Employee.class);
+
+        // the count query is only issued if the total cannot be derived from the page itself
+        return PageableExecutionUtils.getPage(employees, pageable, () -> this.mongoTemplate.count(query, Employee.class));
+    }
+}
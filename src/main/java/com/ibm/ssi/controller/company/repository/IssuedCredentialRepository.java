@@ -16,10 +16,38 @@
 
 package com.ibm.ssi.controller.company.repository;
 
+import java.util.Date;
+
 import com.ibm.ssi.controller.company.domain.IssuedCredential;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+/**
+ * Spring Data MongoDB repository for the {@link IssuedCredential} entity.
+ */
 @Repository
 public interface IssuedCredentialRepository extends MongoRepository<IssuedCredential, String> {
+
+    /**
+     * Projection of the fields exposed by {@link com.ibm.ssi.controller.company.service.dto.IssuedCredentialDTO}.
+     */
+    String LIST_FIELDS = "{ 'issuance_date': 1 }";
+
+    /**
+     * Returns the credentials issued in {@code [from, to)}. Like all list queries, only the id and issuance date
+     * are read.
+     */
+    @Query(value = "{ 'issuance_date': { '$gte': ?0, '$lt': ?1 } }", fields = LIST_FIELDS)
+    Slice<IssuedCredential> findAllIssuedBetween(Date from, Date to, Pageable pageable);
+
+    /**
+     * Keyset query: returns the credentials issued in {@code [from, to)} strictly after the given
+     * (issuance date, id) position. Must be called with a pageable sorted by {@code issuanceDate} and {@code id}.
+     */
+    @Query(value = "{ 'issuance_date': { '$gte': ?0, '$lt': ?1 }, "
+        + "'$or': [ { 'issuance_date': { '$gt': ?2 } }, { 'issuance_date': ?2, '_id': { '$gt': ?3 } } ] }", fields = LIST_FIELDS)
+    Slice<IssuedCredential> findAllIssuedBetweenAfter(Date from, Date to, Date issuanceDate, String id, Pageable pageable);
 }
@@ -17,16 +17,16 @@
 package com.ibm.ssi.controller.company.service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
-import com.ibm.ssi.controller.company.service.dto.AddressDTO;
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
 import com.ibm.ssi.controller.company.service.exceptions.InvalidCSVFileException;
 import com.ibm.ssi.controller.company.service.mapper.EmployeeMapper;
-import com.opencsv.CSVIterator;
 import com.opencsv.CSVParser;
 import com.opencsv.CSVParserBuilder;
 import com.opencsv.CSVReader;
@@ -36,7 +36,6 @@ import com.opencsv.exceptions.CsvValidationException;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 @Service
 public class CSVToEmployeeService {
@@ -44,37 +43,60 @@ public class CSVToEmployeeService {
     @Autowired
     EmployeeMapper employeeMapper;
 
-    public List<EmployeeDTO> readEmployeesCSV(MultipartFile file) throws InvalidCSVFileException {
+    /**
+     * Read the employees of a CSV file row by row and pass them on in batches.
+     *
+     * Only the current batch is held in memory. Rows with missing columns are passed on with the missing fields
+     * left empty, so they fail the validation of the employee instead of the whole file.
+     *
+     * @param inputStream the CSV file, the first line is skipped as header.
+     * @param batchSize the maximum number of employees per batch.
+     * @param batchConsumer receives each batch, the last one may be smaller.
+     * @throws InvalidCSVFileException if the file cannot be read as CSV.
+     */
+    public void readEmployeesCSV(InputStream inputStream, int batchSize, Consumer<List<EmployeeDTO>> batchConsumer)
+            throws InvalidCSVFileException {
 
-        try {
-            List<EmployeeDTO> employeeDTOs = new ArrayList<EmployeeDTO>();
-            Reader reader = new InputStreamReader(file.getInputStream());
-            CSVParser parser = new CSVParserBuilder().withSeparator(';').build();
-            CSVReader csvReader = new CSVReaderBuilder(reader).withCSVParser(parser).withSkipLines(1).build();
+        Reader reader = new InputStreamReader(inputStream);
+        CSVParser parser = new CSVParserBuilder().withSeparator(';').build();
 
-            CSVIterator iterator = new CSVIterator(csvReader);
-            while (iterator.hasNext()) {
-                String[] entry = iterator.next();
-
-                String[] fullName = entry[0].split(",");
-                EmployeeDTO employeeDTO = new EmployeeDTO();
-                employeeDTO.setLastName(fullName[0].trim());
-                employeeDTO.setFirstName(fullName[1].trim());
-                employeeDTO.setEmail(entry[1]);
-                employeeDTO.setFirmName(entry[4]);
-                employeeDTO.setFirmSubject(entry[2]);
-                employeeDTO.setFirmStreet(entry[5]);
-                employeeDTO.setFirmPostalCode(entry[6]);
-                employeeDTO.setFirmCity(entry[7]);
-
-                // auto generate an id
-                employeeDTO.setEmployeeId(RandomStringUtils.randomAlphanumeric(8));
-
-                employeeDTOs.add(employeeDTO);
+        try (CSVReader csvReader = new CSVReaderBuilder(reader).withCSVParser(parser).withSkipLines(1).build()) {
+            List<EmployeeDTO> batch = new ArrayList<>(batchSize);
+            String[] entry;
+            while ((entry = csvReader.readNext()) != null) {
+                batch.add(this.toEmployeeDTO(entry));
+                if (batch.size() >= batchSize) {
+                    batchConsumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
             }
-            return employeeDTOs;
-        } catch (IOException | CsvValidationException | ArrayIndexOutOfBoundsException e) {
+            if (!batch.isEmpty()) {
+                batchConsumer.accept(batch);
+            }
+        } catch (IOException | CsvValidationException e) {
             throw new InvalidCSVFileException();
         }
     }
+
+    private EmployeeDTO toEmployeeDTO(String[] entry) {
+        String[] fullName = column(entry, 0) != null ? entry[0].split(",") : new String[0];
+        EmployeeDTO employeeDTO = new EmployeeDTO();
+        employeeDTO.setLastName(fullName.length > 0 ? fullName[0].trim() : null);
+        employeeDTO.setFirstName(fullName.length > 1 ? fullName[1].trim() : null);
+        employeeDTO.setEmail(column(entry, 1));
+        employeeDTO.setFirmName(column(entry, 4));
+        employeeDTO.setFirmSubject(column(entry, 2));
+        employeeDTO.setFirmStreet(column(entry, 5));
+        employeeDTO.setFirmPostalCode(column(entry, 6));
+        employeeDTO.setFirmCity(column(entry, 7));
+
+        // auto generate an id
+        employeeDTO.setEmployeeId(RandomStringUtils.randomAlphanumeric(8));
+
+        return employeeDTO;
+    }
+
+    private static String column(String[] entry, int index) {
+        return index < entry.length ? entry[index] : null;
+    }
 }
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service;
+
+import java.util.Optional;
+
+/**
+ * Index of the aliases of the agent's connections, so webhooks can resolve the employee of a connection without
+ * asking the agent.
+ */
+public interface ConnectionAliasService {
+
+    String CONNECTION_ALIAS_CACHE = "connectionAliases";
+
+    Optional<String> getAlias(String connectionId);
+
+    String saveAlias(String connectionId, String alias);
+
+    void deleteAlias(String connectionId);
+
+}
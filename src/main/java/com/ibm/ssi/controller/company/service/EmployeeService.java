@@ -16,35 +16,86 @@
 
 package com.ibm.ssi.controller.company.service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import javax.mail.internet.MimeMessage;
+
+import com.ibm.ssi.controller.company.service.dto.EmployeeBulkResultDTO;
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeImportResultDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeInvitationResultDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSelectionDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSummaryDTO;
 import com.ibm.ssi.controller.company.service.exceptions.ConnectionNotFoundException;
 import com.ibm.ssi.controller.company.service.exceptions.EMailGenerationException;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeAlreadyExistsException;
+import com.ibm.ssi.controller.company.service.exceptions.EmployeeModifiedException;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeNotFoundException;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidEmployeeSelectionException;
 import com.ibm.ssi.controller.company.service.exceptions.IssuedCredentialNotFoundException;
 import com.ibm.ssi.controller.company.service.exceptions.InvalidCSVFileException;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidJSONException;
 import com.ibm.ssi.controller.company.service.exceptions.QRCodeGenerationException;
+import com.ibm.ssi.controller.company.service.exceptions.RenderingCapacityExceededException;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 public interface EmployeeService {
 
+    /**
+     * The formats of a bundle of invitation e-mails.
+     */
+    enum InvitationBundleFormat {
+        ZIP, MBOX
+    }
+
     EmployeeDTO createEmployee(EmployeeDTO employeeDTO) throws EmployeeAlreadyExistsException;
 
-    List<EmployeeDTO> createEmployeeByCsv (MultipartFile file) throws InvalidCSVFileException;
+    EmployeeImportResultDTO createEmployeeByCsv (MultipartFile file, boolean incremental) throws InvalidCSVFileException;
+
+    EmployeeImportResultDTO createEmployeeByCsv(InputStream inputStream, boolean incremental,
+            Consumer<EmployeeImportResultDTO> progressListener) throws InvalidCSVFileException;
 
-    EmployeeDTO updateEmployee(EmployeeDTO employeeDTO) throws EmployeeNotFoundException;
+    EmployeeBulkResultDTO createEmployees(InputStream employeesJson) throws InvalidJSONException;
+
+    EmployeeDTO updateEmployee(EmployeeDTO employeeDTO) throws EmployeeNotFoundException, EmployeeModifiedException;
 
     String createEmployeeInvitation(String id) throws EmployeeNotFoundException;
 
-    byte[] createEmployeeInvitationAsEmail(String id) throws EmployeeNotFoundException, EMailGenerationException;
+    List<EmployeeInvitationResultDTO> createEmployeeInvitations(List<String> employeeIds);
+
+    byte[] createEmployeeInvitationAsEmail(String id) throws EmployeeNotFoundException, EMailGenerationException,
+        RenderingCapacityExceededException;
+
+    MimeMessage createEmployeeInvitationAsMimeMessage(String id) throws EmployeeNotFoundException, EMailGenerationException,
+        RenderingCapacityExceededException;
+
+    MimeMessage createEmployeeInvitationAsMimeMessageInBackground(String id) throws EmployeeNotFoundException,
+        EMailGenerationException;
+
+    byte[] createEmployeeInvitationAsQRCode(String id) throws EmployeeNotFoundException, QRCodeGenerationException,
+        RenderingCapacityExceededException;
+
+    String createEmployeeInvitationAsSVGQRCode(String id) throws EmployeeNotFoundException, QRCodeGenerationException,
+        RenderingCapacityExceededException;
+
+    void createEmployeeInvitationsAsQRCodeZip(List<String> employeeIds, OutputStream os) throws IOException;
+
+    void createEmployeeInvitationsAsEmailBundle(List<String> employeeIds, InvitationBundleFormat format, OutputStream os)
+        throws IOException;
+
+    List<String> getEmployeeIds(EmployeeSelectionDTO selection) throws InvalidEmployeeSelectionException;
 
-    byte[] createEmployeeInvitationAsQRCode(String id) throws EmployeeNotFoundException, QRCodeGenerationException;
+    Page<EmployeeDTO> getAllEmployees(String firmName, String firmCity, String lastName, Pageable pageable);
 
-    List<EmployeeDTO> getAllEmployees();
+    Page<EmployeeSummaryDTO> getAllEmployeeSummaries(String firmName, String firmCity, String lastName, Pageable pageable);
 
     Optional<EmployeeDTO> getEmployeeById(String id);
 
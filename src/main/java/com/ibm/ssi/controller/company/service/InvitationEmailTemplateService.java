@@ -0,0 +1,176 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import com.ibm.ssi.controller.company.util.CompiledTemplate;
+import com.ibm.ssi.controller.company.util.ResourceReader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+/**
+ * Provides the compiled invitation e-mail template.
+ *
+ * The template at {@code template_path} is used if it exists, otherwise the default template. It is compiled once
+ * and only reloaded when a file watcher reports a change of the template file and its modification time differs
+ * from the loaded one. If the directory of the template cannot be watched, the modification time is checked on
+ * every call instead.
+ */
+@Service
+public class InvitationEmailTemplateService {
+
+    private final Logger log = LoggerFactory.getLogger(InvitationEmailTemplateService.class);
+
+    private static final long DEFAULT_TEMPLATE = -1;
+
+    @Value("classpath:templates/mail/invitation-email-template.html")
+    Resource defaultEmailTemplate;
+
+    @Value("${ssibk.company.controller.invitation_email.template_path}")
+    String emailTemplatePath;
+
+    private volatile CompiledTemplate template;
+
+    private volatile long templateLastModified = DEFAULT_TEMPLATE;
+
+    private volatile boolean changed = true;
+
+    private volatile boolean watching;
+
+    private WatchService watchService;
+
+    @PostConstruct
+    public void startWatching() {
+        Path templateFile = Paths.get(this.emailTemplatePath).toAbsolutePath();
+        Path directory = templateFile.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            log.debug("E-mail template directory {} does not exist, using the default template", directory);
+            return;
+        }
+
+        try {
+            this.watchService = directory.getFileSystem().newWatchService();
+            directory.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+        } catch (IOException e) {
+            log.warn("Cannot watch e-mail template directory {}, checking it on every use: {}", directory, e.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(() -> this.watch(templateFile.getFileName()), "email-template-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        this.watching = true;
+    }
+
+    @PreDestroy
+    public void stopWatching() throws IOException {
+        if (this.watchService != null) {
+            this.watchService.close();
+        }
+    }
+
+    /**
+     * @return the compiled template, reloaded if the template file has changed.
+     */
+    public CompiledTemplate getTemplate() {
+        if (this.changed || !this.watching) {
+            synchronized (this) {
+                if (this.changed || !this.watching) {
+                    // reset first, so a change during the reload is not lost
+                    this.changed = false;
+                    this.reloadIfModified();
+                }
+            }
+        }
+        return this.template;
+    }
+
+    private void reloadIfModified() {
+        Path templateFile = Paths.get(this.emailTemplatePath);
+        long lastModified = DEFAULT_TEMPLATE;
+        try {
+            if (Files.isRegularFile(templateFile)) {
+                lastModified = Files.getLastModifiedTime(templateFile).toMillis();
+            }
+        } catch (IOException e) {
+            log.warn("Cannot read modification time of e-mail template {}: {}", templateFile, e.getMessage());
+        }
+
+        if (this.template != null && lastModified == this.templateLastModified) {
+            return;
+        }
+
+        if (lastModified != DEFAULT_TEMPLATE) {
+            try {
+                this.template = CompiledTemplate.compile(new String(Files.readAllBytes(templateFile), StandardCharsets.UTF_8));
+                this.templateLastModified = lastModified;
+                log.debug("Loaded e-mail template {}", templateFile);
+                return;
+            } catch (IOException e) {
+                log.warn("Cannot read e-mail template {}: {}", templateFile, e.getMessage());
+                if (this.template != null) {
+                    return;
+                }
+            }
+        }
+        this.template = CompiledTemplate.compile(ResourceReader.asString(this.defaultEmailTemplate));
+        this.templateLastModified = DEFAULT_TEMPLATE;
+    }
+
+    private void watch(Path templateFileName) {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW || templateFileName.equals(event.context())) {
+                        this.changed = true;
+                    }
+                }
+                if (!key.reset()) {
+                    // the directory is gone, fall back to checking on every use
+                    this.watching = false;
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // stopped
+        }
+    }
+}
@@ -0,0 +1,298 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.SendFailedException;
+import javax.mail.internet.MimeMessage;
+
+import com.ibm.ssi.controller.company.service.exceptions.EMailGenerationException;
+import com.ibm.ssi.controller.company.service.exceptions.InvitationUndeliverableException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sends invitation e-mails over SMTP in the background.
+ *
+ * Messages are created by {@code preparation_parallelism} threads and then queued for {@code connections} sender
+ * threads, so the senders never wait for the agent or the rendering. Each sender takes all queued messages, up to
+ * {@code messages_per_connection}, and delivers them over a single SMTP connection, so a burst of invitations does
+ * not open one connection per message. Failed messages are retried with exponential backoff and jitter, up to
+ * {@code max_attempts} times, a message that was created already is sent again as is. At most
+ * {@code queue_capacity} messages are in delivery at once. The outcome of every message is reported to its
+ * {@link DeliveryListener}.
+ */
+@Service
+public class InvitationMailSender {
+
+    private final Logger log = LoggerFactory.getLogger(InvitationMailSender.class);
+
+    @Autowired
+    JavaMailSender mailSender;
+
+    @Value("${ssibk.company.controller.invitation_delivery.connections:2}")
+    int connections;
+
+    @Value("${ssibk.company.controller.invitation_delivery.messages_per_connection:50}")
+    int messagesPerConnection;
+
+    @Value("${ssibk.company.controller.invitation_delivery.preparation_parallelism:4}")
+    int preparationParallelism;
+
+    @Value("${ssibk.company.controller.invitation_delivery.queue_capacity:10000}")
+    int queueCapacity;
+
+    @Value("${ssibk.company.controller.invitation_delivery.max_attempts:5}")
+    int maxAttempts;
+
+    @Value("${ssibk.company.controller.invitation_delivery.initial_backoff_ms:1000}")
+    long initialBackoffMillis;
+
+    @Value("${ssibk.company.controller.invitation_delivery.max_backoff_ms:60000}")
+    long maxBackoffMillis;
+
+    private Semaphore capacity;
+
+    private BlockingQueue<OutgoingMail> queue;
+
+    private ExecutorService preparers;
+
+    private ExecutorService senders;
+
+    private ScheduledExecutorService retries;
+
+    /**
+     * Creates the message to send. It is called on a preparation thread until it succeeds once, then the message is
+     * reused for all further attempts.
+     */
+    @FunctionalInterface
+    public interface MessageFactory {
+
+        /**
+         * @throws InvitationUndeliverableException if the message can never be sent, it is not retried then.
+         */
+        MimeMessage create() throws Exception;
+    }
+
+    /**
+     * Receives the outcome of the attempts of a message, on the threads of the sender.
+     */
+    public interface DeliveryListener {
+
+        void onSent(String deliveryId, int attempts);
+
+        void onRetry(String deliveryId, int attempts, String error);
+
+        void onFailed(String deliveryId, int attempts, String error);
+    }
+
+    @PostConstruct
+    public void start() {
+        this.capacity = new Semaphore(queueCapacity);
+        // bounded by the capacity
+        this.queue = new LinkedBlockingQueue<>();
+        this.preparers = Executors.newFixedThreadPool(preparationParallelism,
+            new CustomizableThreadFactory("invitation-mail-prepare-"));
+        this.retries = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("invitation-mail-retry-"));
+        this.senders = Executors.newFixedThreadPool(connections, new CustomizableThreadFactory("invitation-mail-"));
+        for (int i = 0; i < connections; i++) {
+            this.senders.execute(this::sendQueued);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.preparers.shutdownNow();
+        this.senders.shutdownNow();
+        this.retries.shutdownNow();
+    }
+
+    /**
+     * Queue a message for delivery.
+     *
+     * @param deliveryId the id of the delivery, passed to the listener.
+     * @param factory creates the message.
+     * @param listener receives the outcome.
+     * @return whether the message is queued, {@code false} if {@code queue_capacity} messages are in delivery.
+     */
+    public boolean submit(String deliveryId, MessageFactory factory, DeliveryListener listener) {
+        if (!this.capacity.tryAcquire()) {
+            return false;
+        }
+        OutgoingMail mail = new OutgoingMail(deliveryId, factory, listener);
+        try {
+            this.preparers.execute(() -> this.prepare(mail));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            this.capacity.release();
+            return false;
+        }
+        return true;
+    }
+
+    private void prepare(OutgoingMail mail) {
+        try {
+            mail.message = mail.factory.create();
+        } catch (Exception e) {
+            this.retryOrFail(mail, e);
+            return;
+        }
+        this.queue.add(mail);
+    }
+
+    private void sendQueued() {
+        List<OutgoingMail> batch = new ArrayList<>(messagesPerConnection);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(this.queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            this.queue.drainTo(batch, messagesPerConnection - 1);
+
+            try {
+                this.send(batch);
+            } catch (RuntimeException e) {
+                log.error("failed to send invitation e-mails", e);
+            }
+            batch.clear();
+        }
+    }
+
+    private void send(List<OutgoingMail> batch) {
+        MimeMessage[] messages = batch.stream().map(mail -> mail.message).toArray(MimeMessage[]::new);
+        try {
+            // one connection for all messages of the batch
+            this.mailSender.send(messages);
+            batch.forEach(this::sent);
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (OutgoingMail mail : batch) {
+                Exception failure = failedMessages.get(mail.message);
+                if (failure == null) {
+                    this.sent(mail);
+                } else {
+                    this.retryOrFail(mail, failure);
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(mail -> this.retryOrFail(mail, e));
+        }
+    }
+
+    private void sent(OutgoingMail mail) {
+        this.capacity.release();
+        mail.listener.onSent(mail.deliveryId, mail.attempts + 1);
+    }
+
+    private void failed(OutgoingMail mail, String error) {
+        this.capacity.release();
+        mail.listener.onFailed(mail.deliveryId, mail.attempts, error);
+    }
+
+    private void retryOrFail(OutgoingMail mail, Exception e) {
+        mail.attempts++;
+        String error = e.getMessage();
+        if (mail.attempts >= maxAttempts || isPermanent(e)) {
+            log.warn("failed to deliver invitation e-mail {} after {} attempts: {}", mail.deliveryId, mail.attempts, error);
+            this.failed(mail, error);
+            return;
+        }
+
+        mail.listener.onRetry(mail.deliveryId, mail.attempts, error);
+        try {
+            this.retries.schedule(() -> this.requeue(mail), this.backoffMillis(mail.attempts), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException rejected) {
+            // shutting down
+            this.failed(mail, error);
+        }
+    }
+
+    private void requeue(OutgoingMail mail) {
+        if (mail.message != null) {
+            this.queue.add(mail);
+            return;
+        }
+        try {
+            this.preparers.execute(() -> this.prepare(mail));
+        } catch (RejectedExecutionException e) {
+            // shutting down
+            this.failed(mail, e.getMessage());
+        }
+    }
+
+    /**
+     * Exponential backoff with jitter: a random delay between the half and the full backoff of the attempt.
+     */
+    long backoffMillis(int attempts) {
+        long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempts - 1, 30));
+        return backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+    }
+
+    private static boolean isPermanent(Exception e) {
+        // a message that cannot be rendered fails the same way again
+        if (e instanceof InvitationUndeliverableException || e instanceof EMailGenerationException) {
+            return true;
+        }
+        // addresses the server rejected, a retry is rejected as well
+        return e instanceof SendFailedException && ((SendFailedException) e).getInvalidAddresses() != null
+            && ((SendFailedException) e).getInvalidAddresses().length > 0;
+    }
+
+    private static final class OutgoingMail {
+
+        private final String deliveryId;
+
+        private final MessageFactory factory;
+
+        private final DeliveryListener listener;
+
+        private MimeMessage message;
+
+        private int attempts;
+
+        private OutgoingMail(String deliveryId, MessageFactory factory, DeliveryListener listener) {
+            this.deliveryId = deliveryId;
+            this.factory = factory;
+            this.listener = listener;
+        }
+    }
+}
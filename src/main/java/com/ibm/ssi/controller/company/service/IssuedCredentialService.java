@@ -18,17 +18,20 @@ package com.ibm.ssi.controller.company.service;
 
 import com.ibm.ssi.controller.company.domain.IssuedCredential;
 import com.ibm.ssi.controller.company.service.dto.IssuedCredentialDTO;
+import com.ibm.ssi.controller.company.service.dto.IssuedCredentialPageDTO;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeAlreadyExistsException;
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidContinuationTokenException;
 
-import java.util.List;
+import java.time.Instant;
 import java.util.Optional;
 
 public interface IssuedCredentialService {
 
     IssuedCredential createIssuedCredential(IssuedCredential issuedCredential);
 
-    List<IssuedCredentialDTO> getAllIssuedCredential();
+    IssuedCredentialPageDTO getIssuedCredentials(Instant issuedFrom, Instant issuedTo, String continuationToken, int size)
+        throws InvalidContinuationTokenException;
 
     void resendIssuedCredential(EmployeeDTO employeeDTO, String connectionId) throws EmployeeAlreadyExistsException;
 
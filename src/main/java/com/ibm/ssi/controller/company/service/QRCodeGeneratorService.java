@@ -24,6 +24,7 @@ import com.google.zxing.client.j2se.MatrixToImageWriter;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.ibm.ssi.controller.company.service.exceptions.QRCodeGenerationException;
+import com.ibm.ssi.controller.company.util.QRCodePngEncoder;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -33,10 +34,69 @@ public class QRCodeGeneratorService {
   @Value("${qr.size: 300}")
   private Integer size;
   private QRCodeWriter qrCodeWriter = new QRCodeWriter();
+  public Integer getSize() {
+    return size;
+  }
   public BufferedImage generateQRCodeImage(String text) throws QRCodeGenerationException {
+    return MatrixToImageWriter.toBufferedImage(generateQRCodeMatrix(text));
+  }
+
+  /**
+   * Render the QR code of a text as 1-bit grayscale PNG, written straight from the matrix without an intermediate
+   * image. For steps that run on the rendering executor.
+   *
+   * The PNG (about 1 KB) is returned as bytes instead of written to the response: it is encoded on the rendering
+   * executor, and writing to a slow client from there would block a CPU thread. The bytes are written to the
+   * response as is, without another copy.
+   */
+  public byte[] encodeQRCodePng(String text) throws QRCodeGenerationException {
+    return QRCodePngEncoder.toPng(generateQRCodeMatrix(text));
+  }
+
+  /**
+   * Render the QR code of a text as SVG. The matrix is encoded with one unit per module, and each horizontal run
+   * of dark modules becomes a single rectangle of the path, so the SVG stays small and scales to any size. For
+   * steps that run on the rendering executor.
+   */
+  public String encodeQRCodeSvg(String text) throws QRCodeGenerationException {
+    return renderSvg(text);
+  }
+
+  private String renderSvg(String text) throws QRCodeGenerationException {
+    BitMatrix matrix;
+    try {
+      matrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, 0, 0);
+    } catch (WriterException e) {
+      throw new QRCodeGenerationException(e);
+    }
+
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    StringBuilder svg = new StringBuilder(4096)
+      .append("<svg xmlns=\"http://www.w3.org/2000/svg\" viewBox=\"0 0 ").append(width).append(' ').append(height)
+      .append("\" width=\"").append(this.size).append("\" height=\"").append(this.size)
+      .append("\" shape-rendering=\"crispEdges\"><rect width=\"100%\" height=\"100%\" fill=\"#fff\"/><path d=\"");
+    for (int y = 0; y < height; y++) {
+      int x = 0;
+      while (x < width) {
+        if (!matrix.get(x, y)) {
+          x++;
+          continue;
+        }
+        int start = x;
+        while (x < width && matrix.get(x, y)) {
+          x++;
+        }
+        int run = x - start;
+        svg.append('M').append(start).append(' ').append(y).append('h').append(run).append("v1h-").append(run).append('z');
+      }
+    }
+    return svg.append("\"/></svg>").toString();
+  }
+
+  private BitMatrix generateQRCodeMatrix(String text) throws QRCodeGenerationException {
     try {
-      BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, this.size, this.size);
-      return MatrixToImageWriter.toBufferedImage(bitMatrix);
+      return qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, this.size, this.size);
     } catch (WriterException e) {
       throw new QRCodeGenerationException(e);
     }
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+
+import com.ibm.ssi.controller.company.service.exceptions.RenderingCapacityExceededException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs the CPU-bound rendering of invitations (QR codes and e-mails) on the bounded {@code renderingExecutor}
+ * instead of the request threads, so a burst of invitation downloads cannot starve the other endpoints.
+ *
+ * The queue of the executor is split in two shares: {@code reservedCapacity} tasks for the requests that render a
+ * single invitation, and the rest for bulk jobs. Requests {@link #reserve() reserve} their rendering before they
+ * create the agent invitation, so they are rejected before the invitation is created instead of after, and a
+ * reserved rendering always fits in the queue, whatever the bulk jobs do.
+ */
+@Service
+public class RenderingService {
+
+    @Autowired
+    @Qualifier("renderingExecutor")
+    ExecutorService renderingExecutor;
+
+    @Value("${ssibk.company.controller.rendering.retry_after_seconds:1}")
+    int retryAfterSeconds;
+
+    @Value("${ssibk.company.controller.rendering.queue_capacity:100}")
+    int queueCapacity;
+
+    @Value("${ssibk.company.controller.rendering.reserved_capacity:20}")
+    int reservedCapacity;
+
+    private Semaphore reservations;
+
+    private Semaphore bulkPermits;
+
+    @PostConstruct
+    void initReservations() {
+        if (reservedCapacity < 1 || reservedCapacity >= queueCapacity) {
+            throw new IllegalStateException("The reserved rendering capacity must be between 1 and "
+                + (queueCapacity - 1) + ", but is " + reservedCapacity);
+        }
+        this.reservations = new Semaphore(reservedCapacity);
+        this.bulkPermits = new Semaphore(queueCapacity - reservedCapacity);
+    }
+
+    /**
+     * A reserved rendering, released when closed.
+     */
+    public static final class Reservation implements AutoCloseable {
+
+        private final Semaphore reservations;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Reservation(Semaphore reservations) {
+            this.reservations = reservations;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                reservations.release();
+            }
+        }
+    }
+
+    /**
+     * A rendering step, which may fail with a checked exception.
+     */
+    @FunctionalInterface
+    public interface RenderingTask<T, E extends Exception> {
+
+        T render() throws E;
+    }
+
+    /**
+     * Reserve a rendering before doing the work it depends on. At most {@code reservedCapacity} renderings are
+     * reserved at once.
+     *
+     * @return the reservation, to be closed once the rendering is done.
+     * @throws RenderingCapacityExceededException if all renderings are reserved.
+     */
+    public Reservation reserve() throws RenderingCapacityExceededException {
+        if (!this.reservations.tryAcquire()) {
+            throw new RenderingCapacityExceededException(retryAfterSeconds);
+        }
+        return new Reservation(this.reservations);
+    }
+
+    /**
+     * Run a reserved rendering step on the rendering executor and wait for its result. The reservation holds a place
+     * in the queue of the executor until it is closed, so the step is always rendered on the executor.
+     *
+     * @param reservation the open reservation of the step.
+     * @param task the rendering step, it must not render on the executor itself.
+     * @return the result of the step.
+     * @throws E if the step fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T render(Reservation reservation, RenderingTask<T, E> task) throws E {
+        if (reservation.released.get()) {
+            throw new IllegalStateException("The rendering reservation is already closed");
+        }
+        Future<T> future = this.renderingExecutor.submit(task::render);
+
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // the task only throws E as checked exception
+            throw (E) cause;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for rendering", e);
+        }
+    }
+
+    /**
+     * Run a rendering step of a background job on the rendering executor and wait for its result. The step is not
+     * rejected: if the share of the bulk jobs is used up, it is rendered on the calling thread, which throttles the
+     * job.
+     *
+     * @param task the rendering step, it must not render on the executor itself.
+     * @return the result of the step.
+     * @throws E if the step fails.
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T renderThrottled(RenderingTask<T, E> task) throws E {
+        try {
+            return this.renderAsync(task).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // the task only throws E as checked exception
+            throw (E) cause;
+        }
+    }
+
+    /**
+     * Run a rendering step of a bulk job on the rendering executor without waiting for it. If the share of the bulk
+     * jobs is used up, the step is rendered on the calling thread, which throttles the job instead of failing it.
+     *
+     * @param task the rendering step, it must not render on the executor itself.
+     * @return the result of the step, completed exceptionally if the step fails.
+     */
+    public <T> CompletableFuture<T> renderAsync(RenderingTask<T, ?> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable step = () -> {
+            try {
+                result.complete(task.render());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+
+        if (!this.bulkPermits.tryAcquire()) {
+            step.run();
+            return result;
+        }
+        try {
+            this.renderingExecutor.execute(() -> {
+                try {
+                    step.run();
+                } finally {
+                    this.bulkPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.bulkPermits.release();
+            step.run();
+        }
+        return result;
+    }
+}
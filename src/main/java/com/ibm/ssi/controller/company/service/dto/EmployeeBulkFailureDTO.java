@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.dto;
+
+/**
+ * An employee of a bulk request which could not be created.
+ */
+public class EmployeeBulkFailureDTO {
+
+    private int index;
+
+    private String employeeId;
+
+    private String reason;
+
+    public EmployeeBulkFailureDTO() {
+    }
+
+    public EmployeeBulkFailureDTO(int index, String employeeId, String reason) {
+        this.index = index;
+        this.employeeId = employeeId;
+        this.reason = reason;
+    }
+
+    /**
+     * @return the zero based position of the employee in the request.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeBulkFailureDTO [index=" + index + ", employeeId=" + employeeId + ", reason=" + reason + "]";
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The outcome of a bulk creation of employees.
+ */
+public class EmployeeBulkResultDTO {
+
+    private int received;
+
+    private int inserted;
+
+    private List<EmployeeBulkFailureDTO> failures = new ArrayList<>();
+
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public List<EmployeeBulkFailureDTO> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<EmployeeBulkFailureDTO> failures) {
+        this.failures = failures;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeBulkResultDTO [received=" + received + ", inserted=" + inserted + ", failures=" + failures + "]";
+    }
+}
@@ -22,25 +22,9 @@ import javax.validation.constraints.Size;
 
 import com.ibm.ssi.controller.company.domain.Employee;
 
-import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Field;
 
-public class EmployeeDTO {
-
-    @Id
-    @NotNull
-    @Size(max = 50)
-    private String employeeId;
-
-    @Size(max = 50)
-    @Field("firstName")
-    @NotNull
-    private String firstName;
-
-    @Size(max = 50)
-    @Field("lastName")
-    @NotNull
-    private String lastName;
+public class EmployeeDTO extends EmployeeSummaryDTO {
 
     @Field("email")
     @Email
@@ -70,40 +54,21 @@ public class EmployeeDTO {
     @NotNull
     private String firmCity;
 
+    /**
+     * The version of the stored employee. If set on an update, the update fails if the employee has been modified
+     * in the meantime.
+     */
+    private Long version;
+
     public EmployeeDTO(Employee employee) {
-        this.employeeId = employee.getEmployeeId();
-        this.firstName = employee.getFirstName();
-        this.lastName = employee.getLastName();
+        super(employee.getEmployeeId(), employee.getFirstName(), employee.getLastName());
         this.email = employee.getEmail();
         this.firmName = employee.getFirmName();
         this.firmSubject = employee.getFirmSubject();
         this.firmStreet = employee.getFirmStreet();
         this.firmPostalCode = employee.getFirmPostalCode();
         this.firmCity = employee.getFirmCity();
-    }
-
-    public String getEmployeeId() {
-        return employeeId;
-    }
-
-    public void setEmployeeId(String id) {
-        this.employeeId = id;
-    }
-
-    public String getFirstName() {
-        return firstName;
-    }
-
-    public void setFirstName(String firstName) {
-        this.firstName = firstName;
-    }
-
-    public String getLastName() {
-        return lastName;
-    }
-
-    public void setLastName(String lastName) {
-        this.lastName = lastName;
+        this.version = employee.getVersion();
     }
 
     public String getEmail() {
@@ -154,6 +119,14 @@ public class EmployeeDTO {
         this.firmCity = firmCity;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public EmployeeDTO() {
         // Need by Jackson
     }
@@ -162,9 +135,7 @@ public class EmployeeDTO {
             @Size(max = 50) @NotNull String lastName, @Email String email, @Size(max = 50) @NotNull String firmName,
             @Size(max = 50) String firmSubject, @Size(max = 50) @NotNull String firmStreet, @Size(max = 50) @NotNull String firmPostalCode,
             @Size(max = 50) @NotNull String firmCity) {
-        this.employeeId = employeeId;
-        this.firstName = firstName;
-        this.lastName = lastName;
+        super(employeeId, firstName, lastName);
         this.email = email;
         this.firmName = firmName;
         this.firmSubject = firmSubject;
@@ -176,7 +147,7 @@ public class EmployeeDTO {
     @Override
     public String toString() {
         return "EmployeeDTO [firmSubject=" + firmSubject + ", firmStreet=" + firmStreet + ", firmPostalCode=" + firmPostalCode
-            + ", firmCity=" + firmCity + ", firmName=" + firmName + ", email=" + email + ", firstName=" + firstName + ", employeeId=" + employeeId
-            + ", lastName=" + lastName + "]";
+            + ", firmCity=" + firmCity + ", firmName=" + firmName + ", email=" + email + ", firstName=" + getFirstName()
+            + ", employeeId=" + getEmployeeId() + ", lastName=" + getLastName() + ", version=" + version + "]";
     }
 }
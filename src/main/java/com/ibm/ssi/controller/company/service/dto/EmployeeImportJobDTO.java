@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.dto;
+
+import java.time.Instant;
+
+/**
+ * The state and progress of an asynchronous employee import.
+ */
+public class EmployeeImportJobDTO {
+
+    private String jobId;
+
+    private String status;
+
+    private String fileName;
+
+    private int parsed;
+
+    private int inserted;
+
+    private boolean incremental;
+
+    private int updated;
+
+    private int skipped;
+
+    private int failed;
+
+    private double rowsPerSecond;
+
+    private Instant startedDate;
+
+    private Instant finishedDate;
+
+    private String error;
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @return one of {@code PENDING}, {@code RUNNING}, {@code COMPLETED} or {@code FAILED}.
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public int getParsed() {
+        return parsed;
+    }
+
+    public void setParsed(int parsed) {
+        this.parsed = parsed;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    /**
+     * @return the average number of parsed rows per second since the job started.
+     */
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public Instant getStartedDate() {
+        return startedDate;
+    }
+
+    public void setStartedDate(Instant startedDate) {
+        this.startedDate = startedDate;
+    }
+
+    public Instant getFinishedDate() {
+        return finishedDate;
+    }
+
+    public void setFinishedDate(Instant finishedDate) {
+        this.finishedDate = finishedDate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeImportJobDTO [jobId=" + jobId + ", status=" + status + ", fileName=" + fileName + ", parsed="
+            + parsed + ", incremental=" + incremental + ", inserted=" + inserted
+            + ", updated=" + updated + ", skipped=" + skipped + ", failed=" + failed + ", rowsPerSecond="
+            + rowsPerSecond + ", startedDate=" + startedDate + ", finishedDate=" + finishedDate + ", error=" + error + "]";
+    }
+}
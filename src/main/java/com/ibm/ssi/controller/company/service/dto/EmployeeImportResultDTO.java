@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.dto;
+
+/**
+ * The outcome of an import of employees from a CSV file.
+ */
+public class EmployeeImportResultDTO {
+
+    private int parsed;
+
+    private int inserted;
+
+    private int updated;
+
+    private int skipped;
+
+    private int failed;
+
+    /**
+     * @return the number of rows read from the file.
+     */
+    public int getParsed() {
+        return parsed;
+    }
+
+    public void setParsed(int parsed) {
+        this.parsed = parsed;
+    }
+
+    /**
+     * @return the number of employees created.
+     */
+    public int getInserted() {
+        return inserted;
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    /**
+     * @return the number of existing employees changed by an incremental import.
+     */
+    public int getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    /**
+     * @return the number of rows ignored because the employee already exists, or is unchanged on an incremental
+     *         import.
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    public void setSkipped(int skipped) {
+        this.skipped = skipped;
+    }
+
+    /**
+     * @return the number of rows which are no valid employee or could not be written.
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeImportResultDTO [parsed=" + parsed + ", inserted=" + inserted + ", updated=" + updated
+            + ", skipped=" + skipped
+            + ", failed=" + failed + "]";
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service.dto;
+
+/**
+ * The invitation created for one employee of a bulk request, or the reason it failed.
+ */
+public class EmployeeInvitationResultDTO {
+
+    private String employeeId;
+
+    private String url;
+
+    private String error;
+
+    public EmployeeInvitationResultDTO() {
+    }
+
+    public EmployeeInvitationResultDTO(String employeeId, String url, String error) {
+        this.employeeId = employeeId;
+        this.url = url;
+        this.error = error;
+    }
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String employeeId) {
+        this.employeeId = employeeId;
+    }
+
+    /**
+     * @return the invitation URL, or {@code null} if the invitation failed.
+     */
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeInvitationResultDTO [employeeId=" + employeeId + ", url=" + url + ", error=" + error + "]";
+    }
+}
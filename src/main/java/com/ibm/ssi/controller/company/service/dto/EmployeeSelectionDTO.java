@@ -0,0 +1,74 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.dto;
+
+import java.util.List;
+
+/**
+ * A selection of employees, either by their ids or by filters.
+ */
+public class EmployeeSelectionDTO {
+
+    private List<String> employeeIds;
+
+    private String firmName;
+
+    private String firmCity;
+
+    private String lastName;
+
+    /**
+     * @return the ids of the selected employees. If set, the filters are ignored.
+     */
+    public List<String> getEmployeeIds() {
+        return employeeIds;
+    }
+
+    public void setEmployeeIds(List<String> employeeIds) {
+        this.employeeIds = employeeIds;
+    }
+
+    public String getFirmName() {
+        return firmName;
+    }
+
+    public void setFirmName(String firmName) {
+        this.firmName = firmName;
+    }
+
+    public String getFirmCity() {
+        return firmCity;
+    }
+
+    public void setFirmCity(String firmCity) {
+        this.firmCity = firmCity;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeSelectionDTO [employeeIds=" + employeeIds + ", firmName=" + firmName + ", firmCity=" + firmCity
+            + ", lastName=" + lastName + "]";
+    }
+}
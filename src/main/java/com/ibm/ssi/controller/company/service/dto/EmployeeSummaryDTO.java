@@ -0,0 +1,84 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.dto;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The fields of an employee shown in list views.
+ */
+public class EmployeeSummaryDTO {
+
+    @Id
+    @NotNull
+    @Size(max = 50)
+    private String employeeId;
+
+    @Size(max = 50)
+    @Field("firstName")
+    @NotNull
+    private String firstName;
+
+    @Size(max = 50)
+    @Field("lastName")
+    @NotNull
+    private String lastName;
+
+    public String getEmployeeId() {
+        return employeeId;
+    }
+
+    public void setEmployeeId(String id) {
+        this.employeeId = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public EmployeeSummaryDTO() {
+        // Need by Jackson
+    }
+
+    public EmployeeSummaryDTO(@NotNull @Size(max = 50) String employeeId, @Size(max = 50) @NotNull String firstName,
+            @Size(max = 50) @NotNull String lastName) {
+        this.employeeId = employeeId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    @Override
+    public String toString() {
+        return "EmployeeSummaryDTO [firstName=" + firstName + ", employeeId=" + employeeId + ", lastName=" + lastName + "]";
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.dto;
+
+import java.util.List;
+
+/**
+ * One slice of issued credentials, ordered by issuance date and id, together with the opaque token
+ * to request the following slice.
+ */
+public class IssuedCredentialPageDTO {
+
+    private List<IssuedCredentialDTO> issuedCredentials;
+
+    private String continuationToken;
+
+    public IssuedCredentialPageDTO() {
+    }
+
+    public IssuedCredentialPageDTO(List<IssuedCredentialDTO> issuedCredentials, String continuationToken) {
+        this.issuedCredentials = issuedCredentials;
+        this.continuationToken = continuationToken;
+    }
+
+    public List<IssuedCredentialDTO> getIssuedCredentials() {
+        return issuedCredentials;
+    }
+
+    public void setIssuedCredentials(List<IssuedCredentialDTO> issuedCredentials) {
+        this.issuedCredentials = issuedCredentials;
+    }
+
+    /**
+     * @return the token of the next slice, or {@code null} if this is the last one.
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken;
+    }
+
+    @Override
+    public String toString() {
+        return "IssuedCredentialPageDTO [issuedCredentials=" + issuedCredentials + ", continuationToken="
+                + continuationToken + "]";
+    }
+}
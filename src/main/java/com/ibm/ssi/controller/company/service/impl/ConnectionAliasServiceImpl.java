@@ -0,0 +1,59 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service.impl;
+
+import java.util.Optional;
+
+import com.ibm.ssi.controller.company.domain.ConnectionAlias;
+import com.ibm.ssi.controller.company.repository.ConnectionAliasRepository;
+import com.ibm.ssi.controller.company.service.ConnectionAliasService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * The aliases are stored in MongoDB and read through a bounded in-memory cache, so they survive restarts and are
+ * shared between instances, while repeated lookups of the same connection do not hit the database.
+ */
+@Service
+public class ConnectionAliasServiceImpl implements ConnectionAliasService {
+
+    @Autowired
+    ConnectionAliasRepository connectionAliasRepository;
+
+    @Override
+    @Cacheable(cacheNames = CONNECTION_ALIAS_CACHE, key = "#connectionId", unless = "#result == null")
+    public Optional<String> getAlias(String connectionId) {
+        return this.connectionAliasRepository.findById(connectionId).map(ConnectionAlias::getAlias);
+    }
+
+    @Override
+    @CachePut(cacheNames = CONNECTION_ALIAS_CACHE, key = "#connectionId")
+    public String saveAlias(String connectionId, String alias) {
+        return this.connectionAliasRepository.save(new ConnectionAlias(connectionId, alias)).getAlias();
+    }
+
+    @Override
+    @CacheEvict(cacheNames = CONNECTION_ALIAS_CACHE, key = "#connectionId")
+    public void deleteAlias(String connectionId) {
+        this.connectionAliasRepository.deleteById(connectionId);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import javax.annotation.PostConstruct;
+
+import com.ibm.ssi.controller.company.domain.EmployeeImportJob;
+import com.ibm.ssi.controller.company.repository.EmployeeImportJobRepository;
+import com.ibm.ssi.controller.company.service.EmployeeImportService;
+import com.ibm.ssi.controller.company.service.EmployeeService;
+import com.ibm.ssi.controller.company.service.dto.EmployeeImportJobDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeImportResultDTO;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidCSVFileException;
+import com.ibm.ssi.controller.company.service.mapper.EmployeeImportJobMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+
+    private final Logger log = LoggerFactory.getLogger(EmployeeImportServiceImpl.class);
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    EmployeeImportJobRepository employeeImportJobRepository;
+
+    @Autowired
+    EmployeeImportJobMapper employeeImportJobMapper;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    Executor taskExecutor;
+
+    /**
+     * Jobs that were pending or running when the application stopped are never finished, so they are marked as
+     * failed at startup.
+     */
+    @PostConstruct
+    public void failInterruptedImportJobs() {
+        List<EmployeeImportJob> interruptedJobs = this.employeeImportJobRepository.findByStatusIn(
+            Arrays.asList(EmployeeImportJob.Status.PENDING, EmployeeImportJob.Status.RUNNING));
+        for (EmployeeImportJob job : interruptedJobs) {
+            log.warn("employee import {} was interrupted by a restart", job.getId());
+            job.setStatus(EmployeeImportJob.Status.FAILED);
+            job.setError("interrupted by a restart, please import the file again");
+            job.setFinishedDate(Instant.now());
+        }
+        this.employeeImportJobRepository.saveAll(interruptedJobs);
+    }
+
+    /**
+     * Start the import of Employees from a CSV file in the background.
+     *
+     * The upload is copied to a temporary file, because the multipart request is cleaned up once the request
+     * returns. The job is stored in the database and updated after each imported batch, so its progress can be
+     * queried from any instance. The import runs with the security context of the caller, so the imported
+     * employees are audited as created by the uploader.
+     *
+     * @param file the CSV file.
+     * @param incremental whether existing employees are matched by email and updated, see
+     *        {@link EmployeeService#createEmployeeByCsv(InputStream, boolean, java.util.function.Consumer)}.
+     * @return the created job.
+     * @throws InvalidCSVFileException if the file cannot be read.
+     */
+    @Override
+    public EmployeeImportJobDTO startCsvImport(MultipartFile file, boolean incremental) throws InvalidCSVFileException {
+        Path csvFile;
+        try {
+            csvFile = Files.createTempFile("employee-import-", ".csv");
+            file.transferTo(csvFile);
+        } catch (IOException e) {
+            throw new InvalidCSVFileException();
+        }
+
+        EmployeeImportJob job = new EmployeeImportJob();
+        job.setStatus(EmployeeImportJob.Status.PENDING);
+        job.setFileName(file.getOriginalFilename());
+        job.setIncremental(incremental);
+        EmployeeImportJob savedJob = this.employeeImportJobRepository.save(job);
+
+        try {
+            this.taskExecutor.execute(new DelegatingSecurityContextRunnable(() -> this.runCsvImport(savedJob, csvFile)));
+        } catch (TaskRejectedException e) {
+            log.warn("could not start employee import {}: {}", savedJob.getId(), e.getMessage());
+            deleteQuietly(csvFile);
+            savedJob.setStatus(EmployeeImportJob.Status.FAILED);
+            savedJob.setError("too many running tasks, please retry later");
+            savedJob.setFinishedDate(Instant.now());
+            return this.employeeImportJobMapper.employeeImportJobToEmployeeImportJobDTO(this.employeeImportJobRepository.save(savedJob));
+        }
+
+        return this.employeeImportJobMapper.employeeImportJobToEmployeeImportJobDTO(savedJob);
+    }
+
+    @Override
+    public Optional<EmployeeImportJobDTO> getImportJob(String jobId) {
+        return this.employeeImportJobRepository.findById(jobId)
+            .map(this.employeeImportJobMapper::employeeImportJobToEmployeeImportJobDTO);
+    }
+
+    private void runCsvImport(EmployeeImportJob job, Path csvFile) {
+        job.setStatus(EmployeeImportJob.Status.RUNNING);
+        job.setStartedDate(Instant.now());
+        this.employeeImportJobRepository.save(job);
+
+        try (InputStream inputStream = Files.newInputStream(csvFile)) {
+            EmployeeImportResultDTO result = this.employeeService.createEmployeeByCsv(inputStream, job.isIncremental(), progress -> {
+                applyProgress(job, progress);
+                this.employeeImportJobRepository.save(job);
+            });
+            applyProgress(job, result);
+            job.setStatus(EmployeeImportJob.Status.COMPLETED);
+        } catch (InvalidCSVFileException | IOException | RuntimeException e) {
+            log.warn("employee import {} failed: {}", job.getId(), e.getMessage());
+            job.setStatus(EmployeeImportJob.Status.FAILED);
+            job.setError(e.getMessage());
+        } finally {
+            deleteQuietly(csvFile);
+        }
+
+        job.setFinishedDate(Instant.now());
+        this.employeeImportJobRepository.save(job);
+        log.debug("Finished employee import: {}", job);
+    }
+
+    private static void applyProgress(EmployeeImportJob job, EmployeeImportResultDTO progress) {
+        job.setParsed(progress.getParsed());
+        job.setInserted(progress.getInserted());
+        job.setUpdated(progress.getUpdated());
+        job.setSkipped(progress.getSkipped());
+        job.setFailed(progress.getFailed());
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("could not delete temporary file {}", file);
+        }
+    }
+}
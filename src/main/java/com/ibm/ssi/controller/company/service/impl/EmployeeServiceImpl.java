@@ -16,19 +16,44 @@
 
 package com.ibm.ssi.controller.company.service.impl;
 
-import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import javax.activation.DataHandler;
 import javax.activation.DataSource;
-import javax.imageio.ImageIO;
+import javax.annotation.PostConstruct;
 import javax.mail.BodyPart;
 import javax.mail.Message;
 import javax.mail.MessagingException;
@@ -39,9 +64,15 @@ import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
 import javax.mail.util.ByteArrayDataSource;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ibm.ssi.controller.company.client.ACAPYClient;
+import com.ibm.ssi.controller.company.client.AsyncACAPYClient;
 import com.ibm.ssi.controller.company.client.model.ConnectionRecordDTO;
 import com.ibm.ssi.controller.company.client.model.CredAttrSpec;
 import com.ibm.ssi.controller.company.client.model.CredentialOfferRequestDTO;
@@ -52,28 +83,46 @@ import com.ibm.ssi.controller.company.domain.Employee;
 import com.ibm.ssi.controller.company.repository.EmployeeRepository;
 import com.ibm.ssi.controller.company.service.CSVToEmployeeService;
 import com.ibm.ssi.controller.company.service.EmployeeService;
+import com.ibm.ssi.controller.company.service.InvitationEmailTemplateService;
 import com.ibm.ssi.controller.company.service.IssuedCredentialService;
 import com.ibm.ssi.controller.company.service.QRCodeGeneratorService;
+import com.ibm.ssi.controller.company.service.RenderingService;
+import com.ibm.ssi.controller.company.service.RenderingService.Reservation;
+import com.ibm.ssi.controller.company.service.dto.EmployeeBulkFailureDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeBulkResultDTO;
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeImportResultDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeInvitationResultDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSelectionDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSummaryDTO;
 import com.ibm.ssi.controller.company.service.dto.IssuedCredentialDTO;
 import com.ibm.ssi.controller.company.service.exceptions.ConnectionNotFoundException;
 import com.ibm.ssi.controller.company.service.exceptions.EMailGenerationException;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeAlreadyExistsException;
+import com.ibm.ssi.controller.company.service.exceptions.EmployeeModifiedException;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeNotFoundException;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidEmployeeSelectionException;
 import com.ibm.ssi.controller.company.service.exceptions.InvalidCSVFileException;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidJSONException;
 import com.ibm.ssi.controller.company.service.exceptions.IssuedCredentialNotFoundException;
 import com.ibm.ssi.controller.company.service.exceptions.QRCodeGenerationException;
+import com.ibm.ssi.controller.company.service.exceptions.RenderingCapacityExceededException;
 import com.ibm.ssi.controller.company.service.mapper.EmployeeMapper;
-import com.ibm.ssi.controller.company.util.ResourceReader;
+import com.ibm.ssi.controller.company.util.CompiledTemplate;
+import com.ibm.ssi.controller.company.util.MboxOutputStream;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -83,6 +132,12 @@ public class EmployeeServiceImpl implements EmployeeService {
 
     private final Logger log = LoggerFactory.getLogger(EmployeeServiceImpl.class);
 
+    private static final String DUPLICATE_EMPLOYEE_REASON = "An employee with the given id already exists.";
+
+    private static final String MBOX_SENDER = "MAILER-DAEMON";
+
+    static final String MBOX_FAILURES_SUBJECT = "Failed invitations";
+
     @Autowired
     EmployeeRepository employeeRepository;
 
@@ -98,9 +153,24 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Autowired
     ACAPYClient acapyClient;
 
+    @Autowired
+    AsyncACAPYClient asyncAcapyClient;
+
     @Autowired
     QRCodeGeneratorService qrCodeGeneratorService;
 
+    @Autowired
+    RenderingService renderingService;
+
+    @Autowired
+    InvitationEmailTemplateService invitationEmailTemplateService;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    Validator validator;
+
     @Value("${ssibk.company.controller.agent.credential_definition_id}")
     private String credentialDefinitionId;
 
@@ -110,57 +180,76 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Value("${ssibk.company.controller.agent.imageurl}")
     private String imageUrlReference;
 
-    @Value("classpath:templates/mail/invitation-email-template.html")
-    Resource defaultEmailTemplate;
-
     @Value("${ssibk.company.controller.invitation_email.subject}")
     String emailSubjectLine;
 
-    @Value("${ssibk.company.controller.invitation_email.template_path}")
-    String emailTemplatePath;
+    @Value("${ssibk.company.controller.employee_import.batch_size:1000}")
+    int importBatchSize;
+
+    @Value("${ssibk.company.controller.invitation_export.pipeline_depth:32}")
+    int invitationExportPipelineDepth;
+
+    @Value("${ssibk.company.controller.employee_selection.max_size:10000}")
+    int employeeSelectionMaxSize;
+
+    @Value("${ssibk.company.controller.bulk_invitation.parallelism:16}")
+    int bulkInvitationParallelism;
+
+    // shared by all bulk invitation requests, so together they stay within the bulkhead of the agent client
+    private Semaphore bulkInvitationPermits;
+
+    @Autowired
+    @Qualifier("invitationExportExecutor")
+    Executor invitationExportExecutor;
 
     /**
      * Save a Employee in the Database.
      *
+     * The insert itself detects an existing employee through the unique id, so no additional lookup is needed.
+     *
      * @param employeeDTO the entity to save.
      * @return the persisted entity.
      * @throws EmployeeAlreadyExistsException
      */
     public EmployeeDTO createEmployee(EmployeeDTO employeeDTO) throws EmployeeAlreadyExistsException {
 
-        if (this.employeeRepository.existsById(employeeDTO.getEmployeeId())) {
-            throw new EmployeeAlreadyExistsException();
-        }
-
         Employee employee = employeeMapper.employeeDTOToEmployee(employeeDTO);
-        this.employeeRepository.insert(employee);
+        employee.setVersion(null);
 
-        return employeeDTO;
+        try {
+            return employeeMapper.employeeToEmployeeDTO(this.employeeRepository.insert(employee));
+        } catch (DuplicateKeyException e) {
+            throw new EmployeeAlreadyExistsException();
+        }
     }
 
     /**
      * Update an Employee in the Database.
      *
+     * The update is a single atomic operation on the stored employee. If the given employee has a version, it only
+     * applies to the stored employee of the same version.
+     *
      * @param employeeDTO the entity to save.
      * @return the persisted entity.
      * @throws EmployeeNotFoundException
+     * @throws EmployeeModifiedException if the stored employee has another version than the given one.
      */
     @Override
-    public EmployeeDTO updateEmployee(EmployeeDTO employeeDTO) throws EmployeeNotFoundException {
+    public EmployeeDTO updateEmployee(EmployeeDTO employeeDTO) throws EmployeeNotFoundException, EmployeeModifiedException {
 
         log.debug("Update Employee: {}", employeeDTO);
 
-        Optional<Employee> existingEmployee = this.employeeRepository.findById(employeeDTO.getEmployeeId());
-
-        if (existingEmployee.isPresent()) {
-
-            this.employeeRepository.save(this.employeeMapper.employeeDTOToEmployee(employeeDTO));
+        Employee updatedEmployee = this.employeeRepository.updateIfExists(this.employeeMapper.employeeDTOToEmployee(employeeDTO));
 
-            return employeeDTO;
+        if (updatedEmployee != null) {
+            return this.employeeMapper.employeeToEmployeeDTO(updatedEmployee);
+        }
 
-        } else {
-            throw new EmployeeNotFoundException();
+        // only a failed versioned update needs a second look to tell both causes apart
+        if (employeeDTO.getVersion() != null && this.employeeRepository.existsById(employeeDTO.getEmployeeId())) {
+            throw new EmployeeModifiedException();
         }
+        throw new EmployeeNotFoundException();
     }
 
     /**
@@ -175,8 +264,16 @@ public class EmployeeServiceImpl implements EmployeeService {
      * @throws InterruptedException
      */
     public String createEmployeeInvitation(String id) throws EmployeeNotFoundException {
+        return this.createInvitationContext(id).url;
+    }
 
-        log.debug("Create new Employee invitation: {}");
+    /**
+     * Load the employee and create its invitation. The returned context is passed on to the QR code and e-mail
+     * stages, so one invitation costs a single lookup of the employee.
+     */
+    private InvitationContext createInvitationContext(String id) throws EmployeeNotFoundException {
+
+        log.debug("Create new Employee invitation: {}", id);
 
         Optional<Employee> existingEmployee = this.employeeRepository.findById(id);
         if (!existingEmployee.isPresent()) {
@@ -184,6 +281,10 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
 
         InvitationResultDTO invitation = this.acapyClient.createInvitation(apiKey, id, new InvitationRequestDTO());
+        return new InvitationContext(existingEmployee.get(), this.toInvitationURL(invitation));
+    }
+
+    private String toInvitationURL(InvitationResultDTO invitation) {
         String invitationURL = invitation.getInvitationUrl();
 
         if (this.imageUrlReference != null) {
@@ -193,65 +294,651 @@ public class EmployeeServiceImpl implements EmployeeService {
         return invitationURL;
     }
 
+    @PostConstruct
+    void initBulkInvitationPermits() {
+        this.bulkInvitationPermits = new Semaphore(bulkInvitationParallelism, true);
+    }
+
+    /**
+     * Create invitations for several employees.
+     *
+     * Only the ids of the existing employees are loaded, with a single query, and the invitations are created with
+     * the non-blocking agent client. At most {@code bulkInvitationParallelism} calls are in flight across all
+     * requests, further calls wait for a permit in order. So the request thread only waits while the limit is
+     * reached, instead of one round trip per employee, and concurrent requests are not rejected by the bulkhead.
+     *
+     * @param employeeIds the ids of the employees.
+     * @return the invitation or the reason of the failure per employee, in the order of the ids.
+     */
     @Override
-    public List<EmployeeDTO> createEmployeeByCsv(@Valid MultipartFile file) throws InvalidCSVFileException {
-        List<EmployeeDTO> employeeDtos = this.csvToEmployeeService.readEmployeesCSV(file);
-        List<EmployeeDTO> createdEmployees = new ArrayList<EmployeeDTO>();
+    public List<EmployeeInvitationResultDTO> createEmployeeInvitations(List<String> employeeIds) {
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(employeeIds));
+        Set<String> existingIds = this.employeeRepository.findExistingIds(ids);
+
+        EmployeeInvitationResultDTO[] results = new EmployeeInvitationResultDTO[ids.size()];
+        List<CompletableFuture<Void>> invitations = new ArrayList<>(existingIds.size());
+        for (int i = 0; i < ids.size(); i++) {
+            String id = ids.get(i);
+            if (!existingIds.contains(id)) {
+                results[i] = new EmployeeInvitationResultDTO(id, null, new EmployeeNotFoundException().getMessage());
+                continue;
+            }
+
+            int index = i;
+            this.bulkInvitationPermits.acquireUninterruptibly();
+            CompletableFuture<InvitationResultDTO> invitation;
+            try {
+                invitation = this.asyncAcapyClient.createInvitation(apiKey, id, new InvitationRequestDTO());
+            } catch (RuntimeException e) {
+                this.bulkInvitationPermits.release();
+                throw e;
+            }
+            invitations.add(invitation
+                .handle((result, e) -> {
+                    this.bulkInvitationPermits.release();
+                    if (e == null) {
+                        results[index] = new EmployeeInvitationResultDTO(id, this.toInvitationURL(result), null);
+                    } else {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        log.warn("failed to create invitation for employee {}: {}", id, cause.getMessage());
+                        results[index] = new EmployeeInvitationResultDTO(id, null, cause.getMessage());
+                    }
+                    return null;
+                }));
+        }
+
+        CompletableFuture.allOf(invitations.toArray(new CompletableFuture[0])).join();
+        return Arrays.asList(results);
+    }
 
-        for (EmployeeDTO employeeDto : employeeDtos) {
-            if (this.employeeRepository.existsById(employeeDto.getEmployeeId())) {
-                log.warn("employee with id already exists {}", employeeDto.getEmployeeId());
+    /**
+     * Save the employees of a CSV file in the Database.
+     *
+     * The file is streamed in batches of {@code importBatchSize} rows. Per batch, the already existing employees are
+     * looked up with a single query and the new ones are written with a single unordered bulk insert, so memory and
+     * round trips do not grow with the size of a batch.
+     *
+     * @param file the CSV file.
+     * @param incremental whether existing employees are matched by email and updated instead of skipped.
+     * @return the number of parsed, created, updated, skipped and failed rows.
+     * @throws InvalidCSVFileException if the file cannot be read as CSV.
+     */
+    @Override
+    public EmployeeImportResultDTO createEmployeeByCsv(@Valid MultipartFile file, boolean incremental)
+            throws InvalidCSVFileException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return this.createEmployeeByCsv(inputStream, incremental, progress -> { });
+        } catch (IOException e) {
+            throw new InvalidCSVFileException();
+        }
+    }
+
+    /**
+     * Save Employees from a CSV stream in the Database, reporting the progress after each batch.
+     *
+     * On an incremental import, the rows are matched to the stored employees by their email, as the CSV carries no
+     * id. The hash of each row is compared with the hash stored by the previous import, so unchanged rows are
+     * skipped without a write and only new or changed rows are written. Rows without an email fail.
+     *
+     * @param inputStream the CSV content.
+     * @param incremental whether existing employees are matched by email and updated instead of skipped.
+     * @param progressListener receives the accumulated result after each imported batch.
+     * @return the number of parsed, created, updated, skipped and failed rows.
+     * @throws InvalidCSVFileException if the stream cannot be read as CSV.
+     */
+    @Override
+    public EmployeeImportResultDTO createEmployeeByCsv(InputStream inputStream, boolean incremental,
+            Consumer<EmployeeImportResultDTO> progressListener) throws InvalidCSVFileException {
+        EmployeeImportResultDTO result = new EmployeeImportResultDTO();
+
+        this.csvToEmployeeService.readEmployeesCSV(inputStream, importBatchSize, batch -> {
+            List<Employee> employees = this.validateBatch(batch, result);
+            if (incremental) {
+                this.importBatchIncrementally(employees, result);
             } else {
-                Employee employee = employeeMapper.employeeDTOToEmployee(employeeDto);
-                Employee createdEmployee = this.employeeRepository.insert(employee);
-                createdEmployees.add(employeeMapper.employeeToEmployeeDTO(createdEmployee));
+                this.importBatch(employees, result);
+            }
+            progressListener.accept(result);
+        });
+
+        log.debug("Imported employees from CSV: {}", result);
+        return result;
+    }
+
+    private List<Employee> validateBatch(List<EmployeeDTO> employeeDTOs, EmployeeImportResultDTO result) {
+        result.setParsed(result.getParsed() + employeeDTOs.size());
+
+        List<Employee> employees = new ArrayList<>(employeeDTOs.size());
+        for (EmployeeDTO employeeDTO : employeeDTOs) {
+            Set<ConstraintViolation<EmployeeDTO>> violations = this.validator.validate(employeeDTO);
+            if (violations.isEmpty()) {
+                Employee employee = this.employeeMapper.employeeDTOToEmployee(employeeDTO);
+                employee.setContentHash(contentHash(employee));
+                employees.add(employee);
+            } else {
+                log.warn("invalid employee in CSV {}: {}", employeeDTO.getEmployeeId(), violations);
+                result.setFailed(result.getFailed() + 1);
             }
         }
-        return createdEmployees;
+        return employees;
     }
 
-    public byte[] createEmployeeInvitationAsQRCode(String id) throws EmployeeNotFoundException,
-            QRCodeGenerationException {
-        Optional<Employee> existingEmployee = this.employeeRepository.findById(id);
-        if (!existingEmployee.isPresent()) {
-            throw new EmployeeNotFoundException();
+    private void importBatch(List<Employee> employees, EmployeeImportResultDTO result) {
+        Set<String> existingIds = this.employeeRepository
+            .findIdsByEmployeeIdIn(employees.stream().map(Employee::getEmployeeId).collect(Collectors.toList()))
+            .stream().map(Employee::getEmployeeId).collect(Collectors.toSet());
+        if (!existingIds.isEmpty()) {
+            log.warn("employees with ids already exist {}", existingIds);
+            employees.removeIf(employee -> existingIds.contains(employee.getEmployeeId()));
+            result.setSkipped(result.getSkipped() + existingIds.size());
         }
 
-        String url = createEmployeeInvitation(id);
-        BufferedImage image = this.qrCodeGeneratorService.generateQRCodeImage(url);
+        this.insertNewEmployees(employees, result);
+    }
 
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
+    private void importBatchIncrementally(List<Employee> employees, EmployeeImportResultDTO result) {
+        // if an email occurs more than once in the batch, the last row wins
+        Map<String, Employee> rowsByEmail = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            if (employee.getEmail() == null) {
+                log.warn("employee in CSV without email cannot be matched: {}", employee.getEmployeeId());
+                result.setFailed(result.getFailed() + 1);
+            } else if (rowsByEmail.put(employee.getEmail(), employee) != null) {
+                result.setSkipped(result.getSkipped() + 1);
+            }
+        }
+
+        Map<String, Employee> existingByEmail = new HashMap<>();
+        for (Employee existing : this.employeeRepository.findContentHashesByEmailIn(rowsByEmail.keySet())) {
+            existingByEmail.putIfAbsent(existing.getEmail(), existing);
+        }
+
+        List<Employee> newEmployees = new ArrayList<>();
+        List<Employee> changedEmployees = new ArrayList<>();
+        for (Employee row : rowsByEmail.values()) {
+            Employee existing = existingByEmail.get(row.getEmail());
+            if (existing == null) {
+                newEmployees.add(row);
+            } else if (row.getContentHash().equals(existing.getContentHash())) {
+                result.setSkipped(result.getSkipped() + 1);
+            } else {
+                row.setEmployeeId(existing.getEmployeeId());
+                changedEmployees.add(row);
+            }
+        }
+
+        this.insertNewEmployees(newEmployees, result);
+
+        List<BulkWriteError> errors = this.employeeRepository.updateAllUnordered(changedEmployees);
+        for (BulkWriteError error : errors) {
+            log.warn("failed to update employee {}: {}", changedEmployees.get(error.getIndex()).getEmployeeId(), error.getMessage());
+        }
+        result.setFailed(result.getFailed() + errors.size());
+        result.setUpdated(result.getUpdated() + changedEmployees.size() - errors.size());
+    }
+
+    private void insertNewEmployees(List<Employee> employees, EmployeeImportResultDTO result) {
+        List<BulkWriteError> errors = this.employeeRepository.insertAllUnordered(employees);
+        for (BulkWriteError error : errors) {
+            if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                // created concurrently or contained twice in the batch
+                result.setSkipped(result.getSkipped() + 1);
+            } else {
+                log.warn("failed to insert employee {}: {}", employees.get(error.getIndex()).getEmployeeId(), error.getMessage());
+                result.setFailed(result.getFailed() + 1);
+            }
+        }
+        result.setInserted(result.getInserted() + employees.size() - errors.size());
+    }
+
+    /**
+     * Hash of the business fields of an employee, independent of its id.
+     */
+    private static String contentHash(Employee employee) {
+        String content = String.join("\u001f", Arrays.asList(employee.getFirstName(), employee.getLastName(),
+            employee.getEmail(), employee.getFirmName(), employee.getFirmSubject(), employee.getFirmStreet(),
+            employee.getFirmPostalCode(), employee.getFirmCity()).stream().map(field -> field != null ? field : "")
+            .collect(Collectors.toList()));
         try {
-            ImageIO.write(image, "png", os);
-            return os.toByteArray();
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Save all employees of a JSON array in the Database.
+     *
+     * The array is parsed element by element from the stream and written in unordered bulk inserts of
+     * {@code importBatchSize} employees, so neither the request nor the employees are held in memory as a whole.
+     * Invalid and already existing employees are reported with their position in the array and do not
+     * prevent the others from being created. Batches written before a syntax error in the array are kept.
+     *
+     * @param employeesJson the stream of the JSON array of employees.
+     * @return the number of created employees and the failed ones.
+     * @throws InvalidJSONException if the stream is not a JSON array of employees.
+     */
+    @Override
+    public EmployeeBulkResultDTO createEmployees(InputStream employeesJson) throws InvalidJSONException {
+
+        EmployeeBulkResultDTO result = new EmployeeBulkResultDTO();
+        List<Employee> batch = new ArrayList<>(importBatchSize);
+        List<Integer> batchIndexes = new ArrayList<>(importBatchSize);
+
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(employeesJson)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidJSONException();
+            }
+
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                EmployeeDTO employeeDTO = this.objectMapper.readValue(parser, EmployeeDTO.class);
+
+                Set<ConstraintViolation<EmployeeDTO>> violations = this.validator.validate(employeeDTO);
+                if (violations.isEmpty()) {
+                    Employee employee = this.employeeMapper.employeeDTOToEmployee(employeeDTO);
+                    employee.setVersion(null);
+                    batch.add(employee);
+                    batchIndexes.add(index);
+                } else {
+                    result.getFailures().add(new EmployeeBulkFailureDTO(index, employeeDTO.getEmployeeId(),
+                        violations.stream().map(v -> v.getPropertyPath() + " " + v.getMessage()).collect(Collectors.joining(", "))));
+                }
+
+                if (batch.size() >= importBatchSize) {
+                    this.insertBatch(batch, batchIndexes, result);
+                }
+                index++;
+            }
+
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new InvalidJSONException();
+            }
+            this.insertBatch(batch, batchIndexes, result);
+            result.setReceived(index);
+
+            log.debug("Bulk created employees: {} received, {} inserted, {} failed", index, result.getInserted(),
+                result.getFailures().size());
+            return result;
         } catch (IOException e) {
-            throw new QRCodeGenerationException(e);
+            throw new InvalidJSONException(e);
+        }
+    }
+
+    private void insertBatch(List<Employee> batch, List<Integer> batchIndexes, EmployeeBulkResultDTO result) {
+        List<BulkWriteError> errors = this.employeeRepository.insertAllUnordered(batch);
+        for (BulkWriteError error : errors) {
+            Employee failed = batch.get(error.getIndex());
+            String reason = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                ? DUPLICATE_EMPLOYEE_REASON : error.getMessage();
+            result.getFailures().add(new EmployeeBulkFailureDTO(batchIndexes.get(error.getIndex()), failed.getEmployeeId(), reason));
+        }
+        result.setInserted(result.getInserted() + batch.size() - errors.size());
+        batch.clear();
+        batchIndexes.clear();
+    }
+
+    public byte[] createEmployeeInvitationAsQRCode(String id) throws EmployeeNotFoundException,
+            QRCodeGenerationException, RenderingCapacityExceededException {
+        // reserved before the agent call, so a busy rendering executor does not waste an invitation
+        try (Reservation reservation = this.renderingService.reserve()) {
+            String url = createEmployeeInvitation(id);
+            return this.renderingService.render(reservation, () -> this.qrCodeGeneratorService.encodeQRCodePng(url));
+        }
+    }
+
+    public String createEmployeeInvitationAsSVGQRCode(String id) throws EmployeeNotFoundException,
+            QRCodeGenerationException, RenderingCapacityExceededException {
+        try (Reservation reservation = this.renderingService.reserve()) {
+            String url = createEmployeeInvitation(id);
+            return this.renderingService.render(reservation, () -> this.qrCodeGeneratorService.encodeQRCodeSvg(url));
+        }
+    }
+
+    /**
+     * Write the invitation QR codes of the given employees as ZIP with one PNG entry per employee.
+     *
+     * The codes are created by the pipeline of {@link #exportInvitations}. Employees whose invitation fails are
+     * listed with the reason in the entry {@code failures.txt}.
+     *
+     * @param employeeIds the ids of the employees.
+     * @param os the stream to write the ZIP to, it is not closed.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Override
+    public void createEmployeeInvitationsAsQRCodeZip(List<String> employeeIds, OutputStream os) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(os);
+        // PNG is compressed already
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        Set<String> entryNames = new HashSet<>();
+
+        String failures = this.exportInvitations(employeeIds,
+            invitation -> this.qrCodeGeneratorService.encodeQRCodePng(invitation.url),
+            (employeeId, qrCode) -> {
+                zip.putNextEntry(new ZipEntry(zipEntryName(entryNames, employeeId, ".png")));
+                zip.write(qrCode);
+                zip.closeEntry();
+            });
+
+        writeFailures(zip, failures);
+        zip.finish();
+    }
+
+    /**
+     * Write the invitation e-mails of the given employees as ready to send messages, either as ZIP with one
+     * {@code .eml} entry per employee or as one mbox file.
+     *
+     * The messages are created by the pipeline of {@link #exportInvitations}, the same way as
+     * {@link #createEmployeeInvitationAsMimeMessage(String)} does for one employee. Employees whose invitation fails
+     * are listed with the reason in the entry {@code failures.txt} of the ZIP, or in a last message with the subject
+     * {@value #MBOX_FAILURES_SUBJECT} of the mbox.
+     *
+     * @param employeeIds the ids of the employees.
+     * @param format the format of the bundle.
+     * @param os the stream to write the bundle to, it is not closed.
+     * @throws IOException if the stream cannot be written.
+     */
+    @Override
+    public void createEmployeeInvitationsAsEmailBundle(List<String> employeeIds, InvitationBundleFormat format,
+            OutputStream os) throws IOException {
+        CompiledTemplate emailTemplate = this.invitationEmailTemplateService.getTemplate();
+        RenderingStep<MimeMessage> renderEmail = invitation -> this.renderInvitationEmail(invitation.employee,
+            emailTemplate, this.qrCodeGeneratorService.encodeQRCodePng(invitation.url));
+
+        if (format == InvitationBundleFormat.MBOX) {
+            MboxOutputStream mbox = new MboxOutputStream(os);
+            String failures = this.exportInvitations(employeeIds, renderEmail, (employeeId, message) -> {
+                mbox.nextMessage(MBOX_SENDER, Instant.now());
+                writeMessage(message, mbox);
+            });
+            writeFailures(mbox, failures);
+            mbox.finish();
+        } else {
+            ZipOutputStream zip = new ZipOutputStream(os);
+            Set<String> entryNames = new HashSet<>();
+            String failures = this.exportInvitations(employeeIds, renderEmail, (employeeId, message) -> {
+                zip.putNextEntry(new ZipEntry(zipEntryName(entryNames, employeeId, "-invitation.eml")));
+                writeMessage(message, zip);
+                zip.closeEntry();
+            });
+            writeFailures(zip, failures);
+            zip.finish();
+        }
+    }
+
+    /**
+     * Create invitations for the given employees and write their rendering to a stream, in three pipelined stages:
+     * <ol>
+     * <li>the employee is loaded and the invitation is created by the agent on the {@code invitationExportExecutor},
+     * so the parallelism of that executor limits the agent calls at once,</li>
+     * <li>the invitation is rendered on the rendering executor,</li>
+     * <li>the rendering is written by the calling thread, in the order of the ids.</li>
+     * </ol>
+     * At most {@code invitationExportPipelineDepth} employees are in flight between the first and the last stage, so
+     * agent latency, rendering and output overlap, while memory stays bounded independent of the number of employees.
+     * If the export fails, e.g. because the client went away, the employees in flight that have not reached the agent
+     * yet are skipped, so no invitations are created that are never delivered.
+     *
+     * @return the failed employees with the reasons, one per line.
+     */
+    private <T> String exportInvitations(List<String> employeeIds, RenderingStep<T> render,
+            InvitationWriter<T> writer) throws IOException {
+        Deque<CompletableFuture<RenderedInvitation<T>>> inFlight = new ArrayDeque<>(invitationExportPipelineDepth);
+        Iterator<String> ids = new LinkedHashSet<>(employeeIds).iterator();
+        StringBuilder failures = new StringBuilder();
+        AtomicBoolean cancelled = new AtomicBoolean();
+
+        try {
+            while (ids.hasNext() || !inFlight.isEmpty()) {
+                while (ids.hasNext() && inFlight.size() < invitationExportPipelineDepth) {
+                    inFlight.add(this.startInvitationExport(ids.next(), render, cancelled));
+                }
+
+                RenderedInvitation<T> invitation = inFlight.poll().join();
+                if (invitation.failure != null) {
+                    failures.append(invitation.employeeId).append(": ").append(invitation.failure).append('\n');
+                } else {
+                    writer.write(invitation.employeeId, invitation.content);
+                }
+            }
+        } finally {
+            // cancelling the futures in flight would not stop the agent calls they depend on
+            cancelled.set(true);
+        }
+        return failures.toString();
+    }
+
+    private <T> CompletableFuture<RenderedInvitation<T>> startInvitationExport(String employeeId, RenderingStep<T> render,
+            AtomicBoolean cancelled) {
+        CompletableFuture<T> rendered;
+        try {
+            rendered = CompletableFuture.supplyAsync(() -> this.createInvitationForExport(employeeId, cancelled),
+                    this.invitationExportExecutor)
+                .thenCompose(invitation -> this.renderingService.renderAsync(() -> render.render(invitation)));
+        } catch (RuntimeException e) {
+            rendered = new CompletableFuture<>();
+            rendered.completeExceptionally(e);
+        }
+
+        return rendered.handle((content, e) -> {
+            if (e == null) {
+                return new RenderedInvitation<>(employeeId, content, null);
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (!(cause instanceof EmployeeNotFoundException || cause instanceof CancellationException)) {
+                log.warn("failed to export invitation for employee {}: {}", employeeId, cause.getMessage());
+            }
+            return new RenderedInvitation<>(employeeId, null, cause.getMessage());
+        });
+    }
+
+    private InvitationContext createInvitationForExport(String employeeId, AtomicBoolean cancelled) {
+        if (cancelled.get()) {
+            throw new CancellationException("the export was cancelled");
+        }
+        try {
+            return this.createInvitationContext(employeeId);
+        } catch (EmployeeNotFoundException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Returns the ids of the selected employees, either the given ids or the ids of all employees matching the filters.
+     *
+     * A selection without ids and without filters is rejected instead of selecting every employee, and so is a
+     * selection of more than {@code employeeSelectionMaxSize} employees.
+     *
+     * @throws InvalidEmployeeSelectionException if the selection is empty or too large.
+     */
+    @Override
+    public List<String> getEmployeeIds(EmployeeSelectionDTO selection) throws InvalidEmployeeSelectionException {
+        List<String> employeeIds;
+        if (selection.getEmployeeIds() != null && !selection.getEmployeeIds().isEmpty()) {
+            employeeIds = selection.getEmployeeIds();
+        } else if (selection.getFirmName() != null || selection.getFirmCity() != null || selection.getLastName() != null) {
+            employeeIds = this.employeeRepository.findIdsByFilter(selection.getFirmName(), selection.getFirmCity(),
+                selection.getLastName(), employeeSelectionMaxSize + 1);
+        } else {
+            throw new InvalidEmployeeSelectionException("Select the employees by their ids or by at least one filter");
+        }
+
+        if (employeeIds.size() > employeeSelectionMaxSize) {
+            throw new InvalidEmployeeSelectionException("At most " + employeeSelectionMaxSize + " employees can be selected at once");
+        }
+        return employeeIds;
+    }
+
+    private static void writeFailures(ZipOutputStream zip, String failures) throws IOException {
+        if (!failures.isEmpty()) {
+            zip.putNextEntry(new ZipEntry("failures.txt"));
+            zip.write(failures.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private static void writeFailures(MboxOutputStream mbox, String failures) throws IOException {
+        if (failures.isEmpty()) {
+            return;
+        }
+        try {
+            MimeMessage report = new MimeMessage(Session.getInstance(System.getProperties()));
+            report.setFrom(new InternetAddress(MBOX_SENDER));
+            report.setSubject(MBOX_FAILURES_SUBJECT);
+            report.setText(failures, StandardCharsets.UTF_8.name());
+            mbox.nextMessage(MBOX_SENDER, Instant.now());
+            report.writeTo(mbox);
+        } catch (MessagingException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static void writeMessage(MimeMessage message, OutputStream os) throws IOException {
+        try {
+            message.writeTo(os);
+        } catch (MessagingException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns a name for the entry of an employee that is safe in file systems and not used by another entry yet.
+     * Different ids can map to the same name, e.g. {@code "a b"} and {@code "a_b"}, then a counter is appended.
+     */
+    private static String zipEntryName(Set<String> entryNames, String employeeId, String suffix) {
+        String baseName = employeeId.replaceAll("[^A-Za-z0-9._-]", "_");
+        String name = baseName + suffix;
+        for (int i = 2; !entryNames.add(name); i++) {
+            name = baseName + "-" + i + suffix;
+        }
+        return name;
+    }
+
+    /**
+     * The rendering stage of an export.
+     */
+    @FunctionalInterface
+    private interface RenderingStep<T> {
+
+        T render(InvitationContext invitation) throws Exception;
+    }
+
+    /**
+     * The output stage of an export.
+     */
+    @FunctionalInterface
+    private interface InvitationWriter<T> {
+
+        void write(String employeeId, T content) throws IOException;
+    }
+
+    /**
+     * An employee together with its created invitation, passed from stage to stage of an invitation.
+     */
+    private static final class InvitationContext {
+
+        private final Employee employee;
+
+        private final String url;
+
+        private InvitationContext(Employee employee, String url) {
+            this.employee = employee;
+            this.url = url;
+        }
+    }
+
+    private static final class RenderedInvitation<T> {
+
+        private final String employeeId;
+
+        private final T content;
+
+        private final String failure;
+
+        private RenderedInvitation(String employeeId, T content, String failure) {
+            this.employeeId = employeeId;
+            this.content = content;
+            this.failure = failure;
         }
     }
 
     public byte[] createEmployeeInvitationAsEmail(String id) throws EmployeeNotFoundException,
+            EMailGenerationException, RenderingCapacityExceededException {
+
+        MimeMessage message = this.createEmployeeInvitationAsMimeMessage(id);
+        try {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            message.writeTo(os);
+            return os.toByteArray();
+        } catch (IOException | MessagingException e) {
+            throw new EMailGenerationException(e);
+        }
+    }
+
+    /**
+     * Create an invitation for an employee as e-mail with the QR code inline.
+     *
+     * The message is fully assembled, so it can be written with {@link MimeMessage#writeTo(OutputStream)} straight
+     * to its destination without another copy.
+     *
+     * @param id the id of the employee.
+     * @return the unsent message.
+     */
+    @Override
+    public MimeMessage createEmployeeInvitationAsMimeMessage(String id) throws EmployeeNotFoundException,
+            EMailGenerationException, RenderingCapacityExceededException {
+
+        try (Reservation reservation = this.renderingService.reserve()) {
+            // the employee is loaded once and used for the invitation, the QR code and the e-mail
+            InvitationContext context = this.createInvitationContext(id);
+
+            CompiledTemplate emailTemplate = this.invitationEmailTemplateService.getTemplate();
+            // the QR code and the MIME assembly are rendered in one step
+            return this.renderingService.render(reservation, () -> this.renderInvitationEmail(context.employee,
+                emailTemplate, this.encodeInvitationQRCode(context.url)));
+        }
+    }
+
+    /**
+     * Create an invitation for an employee as e-mail with the QR code inline, for background jobs.
+     *
+     * Unlike {@link #createEmployeeInvitationAsMimeMessage(String)}, the rendering is never rejected: if the rendering
+     * executor is busy, the message is rendered on the calling thread.
+     *
+     * @param id the id of the employee.
+     * @return the unsent message.
+     */
+    @Override
+    public MimeMessage createEmployeeInvitationAsMimeMessageInBackground(String id) throws EmployeeNotFoundException,
             EMailGenerationException {
 
-        // make sure the employee exists
-        Optional<Employee> existingEmployee = this.employeeRepository.findById(id);
-        if (!existingEmployee.isPresent()) {
-            throw new EmployeeNotFoundException();
+        InvitationContext context = this.createInvitationContext(id);
+        CompiledTemplate emailTemplate = this.invitationEmailTemplateService.getTemplate();
+        return this.renderingService.renderThrottled(() -> this.renderInvitationEmail(context.employee, emailTemplate,
+            this.encodeInvitationQRCode(context.url)));
+    }
+
+    private byte[] encodeInvitationQRCode(String url) throws EMailGenerationException {
+        try {
+            return this.qrCodeGeneratorService.encodeQRCodePng(url);
+        } catch (QRCodeGenerationException e) {
+            throw new EMailGenerationException(e);
         }
+    }
 
+    private MimeMessage renderInvitationEmail(Employee employee, CompiledTemplate emailTemplate, byte[] invitation)
+            throws EMailGenerationException {
         try {
-            Resource emailTemplateResource = new FileSystemResource(this.emailTemplatePath);
-            if (!emailTemplateResource.exists()) {
-                emailTemplateResource = this.defaultEmailTemplate;
-            }
-            String emailTemplate = ResourceReader.asString(emailTemplateResource);
-            byte[] invitation = this.createEmployeeInvitationAsQRCode(id);
-            emailTemplate = emailTemplate.replace("{{EMPLOYEE_FIRSTNAME}}", existingEmployee.get().getFirstName());
-            emailTemplate = emailTemplate.replace("{{EMPLOYEE_ID}}", existingEmployee.get().getEmployeeId());
+            Map<String, String> templateValues = new HashMap<>(4);
+            templateValues.put("EMPLOYEE_FIRSTNAME", employee.getFirstName());
+            templateValues.put("EMPLOYEE_ID", employee.getEmployeeId());
+            String emailContent = emailTemplate.render(templateValues);
 
-            Message message = new MimeMessage(Session.getInstance(System.getProperties()));
+            MimeMessage message = new MimeMessage(Session.getInstance(System.getProperties()));
             InternetAddress[] addresses = {};
-            if (existingEmployee.get().getEmail() != null) {
-                addresses = InternetAddress.parse(existingEmployee.get().getEmail());
+            if (employee.getEmail() != null) {
+                addresses = InternetAddress.parse(employee.getEmail());
             }
             message.setRecipients(Message.RecipientType.TO, addresses);
             message.setSubject(emailSubjectLine);
@@ -260,7 +947,7 @@ public class EmployeeServiceImpl implements EmployeeService {
             Multipart multipart = new MimeMultipart();
             // first part (the html)
             BodyPart messageBodyPart = new MimeBodyPart();
-            messageBodyPart.setContent(emailTemplate, "text/html; charset=utf-8");
+            messageBodyPart.setContent(emailContent, "text/html; charset=utf-8");
             multipart.addBodyPart(messageBodyPart);
 
             // second part (the qr-code)
@@ -271,27 +958,51 @@ public class EmployeeServiceImpl implements EmployeeService {
             multipart.addBodyPart(imagePart);
 
             message.setContent(multipart);
-            ByteArrayOutputStream os = new ByteArrayOutputStream();
-            message.writeTo(os);
+            // determines the headers and transfer encodings, so writing the message only encodes it
+            message.saveChanges();
 
-            return os.toByteArray();
-        } catch (IOException | MessagingException | QRCodeGenerationException e) {
+            return message;
+        } catch (MessagingException e) {
             throw new EMailGenerationException(e);
         }
     }
 
     /**
-     * Get all the stored employees.
+     * Get one page of the stored employees matching the given filters.
+     *
+     * @param firmName the firm name to filter by, or {@code null}.
+     * @param firmCity the firm city to filter by, or {@code null}.
+     * @param lastName the last name to filter by, or {@code null}.
+     * @param pageable the pagination and sorting information.
+     * @return the page of entities.
+     */
+    @Override
+    public Page<EmployeeDTO> getAllEmployees(String firmName, String firmCity, String lastName, Pageable pageable) {
+
+        log.debug("Get a page of Employees: {} (firmName={}, firmCity={}, lastName={})", pageable, firmName, firmCity, lastName);
+
+        return this.employeeRepository.findAllByFilter(firmName, firmCity, lastName, pageable)
+            .map(employeeMapper::employeeToEmployeeDTO);
+
+    }
+
+    /**
+     * Get one page of the stored employees matching the given filters, reduced to the fields of a list view.
+     * Only these fields are read from the database.
      *
-     * @return the list of entities.
+     * @param firmName the firm name to filter by, or {@code null}.
+     * @param firmCity the firm city to filter by, or {@code null}.
+     * @param lastName the last name to filter by, or {@code null}.
+     * @param pageable the pagination and sorting information.
+     * @return the page of summaries.
      */
     @Override
-    public List<EmployeeDTO> getAllEmployees() {
+    public Page<EmployeeSummaryDTO> getAllEmployeeSummaries(String firmName, String firmCity, String lastName, Pageable pageable) {
 
-        log.debug("Get all Employees");
+        log.debug("Get a page of Employee summaries: {} (firmName={}, firmCity={}, lastName={})", pageable, firmName, firmCity, lastName);
 
-        return this.employeeRepository.findAll().stream().map(employeeMapper::employeeToEmployeeDTO)
-                .collect(Collectors.toCollection(ArrayList::new));
+        return this.employeeRepository.findSummariesByFilter(firmName, firmCity, lastName, pageable)
+            .map(employeeMapper::employeeToEmployeeSummaryDTO);
 
     }
 
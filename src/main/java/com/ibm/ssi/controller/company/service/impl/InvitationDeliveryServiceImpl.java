@@ -0,0 +1,165 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import com.ibm.ssi.controller.company.domain.InvitationDelivery;
+import com.ibm.ssi.controller.company.repository.EmployeeRepository;
+import com.ibm.ssi.controller.company.repository.InvitationDeliveryRepository;
+import com.ibm.ssi.controller.company.service.EmployeeService;
+import com.ibm.ssi.controller.company.service.InvitationDeliveryService;
+import com.ibm.ssi.controller.company.service.InvitationMailSender;
+import com.ibm.ssi.controller.company.service.dto.InvitationDeliveryDTO;
+import com.ibm.ssi.controller.company.service.exceptions.EmployeeNotFoundException;
+import com.ibm.ssi.controller.company.service.exceptions.InvitationUndeliverableException;
+import com.ibm.ssi.controller.company.service.mapper.InvitationDeliveryMapper;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class InvitationDeliveryServiceImpl implements InvitationDeliveryService, InvitationMailSender.DeliveryListener {
+
+    @Autowired
+    EmployeeService employeeService;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    InvitationDeliveryRepository invitationDeliveryRepository;
+
+    @Autowired
+    InvitationDeliveryMapper invitationDeliveryMapper;
+
+    @Autowired
+    InvitationMailSender invitationMailSender;
+
+    @Value("${jhipster.mail.from}")
+    String sender;
+
+    /**
+     * Send the invitation e-mail of an employee over SMTP in the background.
+     *
+     * @param employeeId the id of the employee.
+     * @return the queued delivery, whose status can be queried with {@link #getDelivery(String)}.
+     * @throws EmployeeNotFoundException if the employee does not exist.
+     */
+    @Override
+    public InvitationDeliveryDTO deliverInvitation(String employeeId) throws EmployeeNotFoundException {
+        if (!this.employeeRepository.existsById(employeeId)) {
+            throw new EmployeeNotFoundException();
+        }
+        return this.deliverInvitations(Collections.singletonList(employeeId)).get(0);
+    }
+
+    /**
+     * Send the invitation e-mails of several employees over SMTP in the background, see
+     * {@link InvitationMailSender}. The deliveries are stored in the database and updated after each attempt.
+     *
+     * @param employeeIds the ids of the employees.
+     * @return the queued deliveries, one per employee.
+     */
+    @Override
+    public List<InvitationDeliveryDTO> deliverInvitations(List<String> employeeIds) {
+        List<InvitationDelivery> deliveries = new ArrayList<>(employeeIds.size());
+        for (String employeeId : new LinkedHashSet<>(employeeIds)) {
+            InvitationDelivery delivery = new InvitationDelivery();
+            delivery.setEmployeeId(employeeId);
+            delivery.setStatus(InvitationDelivery.Status.QUEUED);
+            deliveries.add(delivery);
+        }
+
+        List<InvitationDelivery> savedDeliveries = this.invitationDeliveryRepository.saveAll(deliveries);
+        for (InvitationDelivery delivery : savedDeliveries) {
+            String employeeId = delivery.getEmployeeId();
+            if (!this.invitationMailSender.submit(delivery.getId(), () -> this.createMessage(employeeId), this)) {
+                delivery.setStatus(InvitationDelivery.Status.FAILED);
+                delivery.setError("the delivery queue is full, please retry later");
+                this.invitationDeliveryRepository.save(delivery);
+            }
+        }
+
+        return savedDeliveries.stream().map(this.invitationDeliveryMapper::invitationDeliveryToInvitationDeliveryDTO)
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<InvitationDeliveryDTO> getDelivery(String deliveryId) {
+        return this.invitationDeliveryRepository.findById(deliveryId)
+            .map(this.invitationDeliveryMapper::invitationDeliveryToInvitationDeliveryDTO);
+    }
+
+    @Override
+    public void onSent(String deliveryId, int attempts) {
+        this.update(deliveryId, InvitationDelivery.Status.SENT, attempts, null);
+    }
+
+    @Override
+    public void onRetry(String deliveryId, int attempts, String error) {
+        this.update(deliveryId, InvitationDelivery.Status.RETRYING, attempts, error);
+    }
+
+    @Override
+    public void onFailed(String deliveryId, int attempts, String error) {
+        this.update(deliveryId, InvitationDelivery.Status.FAILED, attempts, error);
+    }
+
+    /**
+     * The invitation e-mail as created for the download, with sender and without the {@code X-Unsent} marker.
+     */
+    private MimeMessage createMessage(String employeeId) throws Exception {
+        MimeMessage message;
+        try {
+            message = this.employeeService.createEmployeeInvitationAsMimeMessageInBackground(employeeId);
+        } catch (EmployeeNotFoundException e) {
+            throw new InvitationUndeliverableException(e.getMessage());
+        }
+        if (message.getAllRecipients() == null || message.getAllRecipients().length == 0) {
+            throw new InvitationUndeliverableException("The employee has no e-mail address.");
+        }
+
+        message.setFrom(new InternetAddress(sender));
+        message.removeHeader("X-Unsent");
+        message.saveChanges();
+        return message;
+    }
+
+    private void update(String deliveryId, InvitationDelivery.Status status, int attempts, String error) {
+        this.invitationDeliveryRepository.findById(deliveryId).ifPresent(delivery -> {
+            delivery.setStatus(status);
+            delivery.setAttempts(attempts);
+            delivery.setError(error);
+            if (status == InvitationDelivery.Status.SENT) {
+                delivery.setSentDate(Instant.now());
+            }
+            this.invitationDeliveryRepository.save(delivery);
+        });
+    }
+}
@@ -16,11 +16,21 @@
 
 package com.ibm.ssi.controller.company.service.impl;
 
-import java.util.LinkedList;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
 import com.ibm.ssi.controller.company.client.ACAPYClient;
 import com.ibm.ssi.controller.company.client.model.RevocationRequestDTO;
 import com.ibm.ssi.controller.company.domain.IssuedCredential;
@@ -28,15 +38,21 @@ import com.ibm.ssi.controller.company.repository.IssuedCredentialRepository;
 import com.ibm.ssi.controller.company.service.EmployeeService;
 import com.ibm.ssi.controller.company.service.IssuedCredentialService;
 import com.ibm.ssi.controller.company.service.dto.IssuedCredentialDTO;
+import com.ibm.ssi.controller.company.service.dto.IssuedCredentialPageDTO;
 import com.ibm.ssi.controller.company.service.mapper.IssuedCredentialMapper;
 
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeAlreadyExistsException;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeNotFoundException;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidContinuationTokenException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -44,6 +60,14 @@ public class IssuedCredentialServiceImpl implements IssuedCredentialService {
 
     private final Logger log = LoggerFactory.getLogger(IssuedCredentialServiceImpl.class);
 
+    private static final Sort KEYSET_SORT = Sort.by("issuanceDate", "id");
+
+    private static final String TOKEN_SEPARATOR = ":";
+
+    private static final String TOKEN_SIGNATURE_SEPARATOR = ".";
+
+    private static final String TOKEN_MAC_ALGORITHM = "HmacSHA256";
+
     @Autowired
     IssuedCredentialMapper issuedCredentialMapper;
 
@@ -53,12 +77,33 @@ public class IssuedCredentialServiceImpl implements IssuedCredentialService {
     @Value("${ssibk.company.controller.agent.apikey}")
     private String apiKey;
 
+    @Value("${ssibk.company.controller.continuation_token.secret:}")
+    private String continuationTokenSecret;
+
+    private SecretKeySpec continuationTokenKey;
+
     @Autowired
     EmployeeService employeeService;
 
     @Autowired
     IssuedCredentialRepository issuedCredentialRepository;
 
+    /**
+     * The continuation tokens are signed, so a client cannot make up a position. Without a configured secret a
+     * random one is used, then tokens are only accepted by the instance that issued them.
+     */
+    @PostConstruct
+    public void initContinuationTokenKey() {
+        byte[] secret;
+        if (this.continuationTokenSecret == null || this.continuationTokenSecret.isEmpty()) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = this.continuationTokenSecret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.continuationTokenKey = new SecretKeySpec(secret, TOKEN_MAC_ALGORITHM);
+    }
+
     @Override
     public IssuedCredential createIssuedCredential(IssuedCredential issuedCredential) {
 
@@ -92,14 +137,90 @@ public class IssuedCredentialServiceImpl implements IssuedCredentialService {
         }
     }
 
+    /**
+     * Get one slice of the issued credentials, ordered by issuance date and id.
+     *
+     * The slice is located by the (issuance date, id) position of the last element of the previous slice
+     * instead of an offset, so every request is a single index range scan independent of its depth.
+     *
+     * @param issuedFrom only return credentials issued at or after this instant, or {@code null}.
+     * @param issuedTo only return credentials issued before this instant, or {@code null}.
+     * @param continuationToken the token returned with the previous slice, or {@code null} for the first one.
+     * @param size the maximum number of credentials in the slice.
+     * @return the slice and the token of the following one.
+     * @throws InvalidContinuationTokenException if the token was not issued by this service.
+     */
     @Override
-    public List<IssuedCredentialDTO> getAllIssuedCredential() {
+    public IssuedCredentialPageDTO getIssuedCredentials(Instant issuedFrom, Instant issuedTo, String continuationToken,
+            int size) throws InvalidContinuationTokenException {
+
+        log.debug("Get Issued Credentials between {} and {} after {} (size {})", issuedFrom, issuedTo, continuationToken, size);
+
+        Date from = issuedFrom != null ? Date.from(issuedFrom) : new Date(Long.MIN_VALUE);
+        Date to = issuedTo != null ? Date.from(issuedTo) : new Date(Long.MAX_VALUE);
+        Pageable pageable = PageRequest.of(0, size, KEYSET_SORT);
+        Slice<IssuedCredential> slice;
+        if (continuationToken == null || continuationToken.isEmpty()) {
+            slice = this.issuedCredentialRepository.findAllIssuedBetween(from, to, pageable);
+        } else {
+            IssuedCredential position = decodeContinuationToken(continuationToken);
+            slice = this.issuedCredentialRepository.findAllIssuedBetweenAfter(from, to, position.getIssuanceDate(),
+                position.getId(), pageable);
+        }
 
-        log.debug("Get All Issued Credential");
+        List<IssuedCredentialDTO> issuedCredentials = slice.getContent().stream()
+            .map(this.issuedCredentialMapper::issuedCredentialToIssuedCredentialDTO)
+            .collect(Collectors.toList());
 
-        return this.issuedCredentialRepository.findAll().stream().map(this.issuedCredentialMapper::issuedCredentialToIssuedCredentialDTO)
-            .collect(Collectors.toCollection(LinkedList::new));
+        String nextToken = null;
+        if (slice.hasNext()) {
+            nextToken = encodeContinuationToken(slice.getContent().get(slice.getNumberOfElements() - 1));
+        }
+        return new IssuedCredentialPageDTO(issuedCredentials, nextToken);
+    }
+
+    private String encodeContinuationToken(IssuedCredential issuedCredential) {
+        String position = issuedCredential.getIssuanceDate().getTime() + TOKEN_SEPARATOR + issuedCredential.getId();
+        byte[] positionBytes = position.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(positionBytes) + TOKEN_SIGNATURE_SEPARATOR + encoder.encodeToString(sign(positionBytes));
+    }
+
+    private IssuedCredential decodeContinuationToken(String continuationToken) throws InvalidContinuationTokenException {
+        try {
+            int signatureStart = continuationToken.indexOf(TOKEN_SIGNATURE_SEPARATOR);
+            if (signatureStart < 0) {
+                throw new InvalidContinuationTokenException();
+            }
+            byte[] positionBytes = Base64.getUrlDecoder().decode(continuationToken.substring(0, signatureStart));
+            byte[] signature = Base64.getUrlDecoder().decode(continuationToken.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(sign(positionBytes), signature)) {
+                throw new InvalidContinuationTokenException();
+            }
+
+            String position = new String(positionBytes, StandardCharsets.UTF_8);
+            String[] elements = position.split(TOKEN_SEPARATOR, 2);
+            if (elements.length != 2) {
+                throw new InvalidContinuationTokenException();
+            }
+            IssuedCredential issuedCredential = new IssuedCredential();
+            issuedCredential.setIssuanceDate(new Date(Long.parseLong(elements[0])));
+            issuedCredential.setId(elements[1]);
+            return issuedCredential;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidContinuationTokenException();
+        }
+    }
 
+    private byte[] sign(byte[] position) {
+        try {
+            Mac mac = Mac.getInstance(TOKEN_MAC_ALGORITHM);
+            mac.init(this.continuationTokenKey);
+            return mac.doFinal(position);
+        } catch (GeneralSecurityException e) {
+            // HmacSHA256 is available on every Java platform
+            throw new IllegalStateException(e);
+        }
     }
 
     @Override
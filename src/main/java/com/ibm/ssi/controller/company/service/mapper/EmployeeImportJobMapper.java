@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.mapper;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import com.ibm.ssi.controller.company.domain.EmployeeImportJob;
+import com.ibm.ssi.controller.company.service.dto.EmployeeImportJobDTO;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Mapper for the entity {@link EmployeeImportJob} and its DTO called {@link EmployeeImportJobDTO}.
+ */
+@Service
+public class EmployeeImportJobMapper {
+
+    public EmployeeImportJobDTO employeeImportJobToEmployeeImportJobDTO(EmployeeImportJob job) {
+        if (job == null) {
+            return null;
+        } else {
+            EmployeeImportJobDTO jobDTO = new EmployeeImportJobDTO();
+            jobDTO.setJobId(job.getId());
+            jobDTO.setStatus(job.getStatus().name());
+            jobDTO.setFileName(job.getFileName());
+            jobDTO.setParsed(job.getParsed());
+            jobDTO.setInserted(job.getInserted());
+            jobDTO.setIncremental(job.isIncremental());
+            jobDTO.setUpdated(job.getUpdated());
+            jobDTO.setSkipped(job.getSkipped());
+            jobDTO.setFailed(job.getFailed());
+            jobDTO.setStartedDate(job.getStartedDate());
+            jobDTO.setFinishedDate(job.getFinishedDate());
+            jobDTO.setError(job.getError());
+
+            if (job.getStartedDate() != null) {
+                Instant end = job.getFinishedDate() != null ? job.getFinishedDate() : Instant.now();
+                long millis = Math.max(1, Duration.between(job.getStartedDate(), end).toMillis());
+                jobDTO.setRowsPerSecond(job.getParsed() * 1000.0 / millis);
+            }
+
+            return jobDTO;
+        }
+    }
+}
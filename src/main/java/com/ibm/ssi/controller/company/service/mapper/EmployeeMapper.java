@@ -17,6 +17,7 @@
 package com.ibm.ssi.controller.company.service.mapper;
 
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSummaryDTO;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -59,11 +60,20 @@ public class EmployeeMapper {
             employeeDTO.setFirmStreet(employee.getFirmStreet());
             employeeDTO.setFirmPostalCode(employee.getFirmPostalCode());
             employeeDTO.setFirmCity(employee.getFirmCity());
+            employeeDTO.setVersion(employee.getVersion());
 
             return employeeDTO;
         }
     }
 
+    public EmployeeSummaryDTO employeeToEmployeeSummaryDTO(Employee employee) {
+        if (employee == null) {
+            return null;
+        } else {
+            return new EmployeeSummaryDTO(employee.getEmployeeId(), employee.getFirstName(), employee.getLastName());
+        }
+    }
+
     public List<Employee> employeeDTOsToEmployees(List<EmployeeDTO> employeeDTOs) {
         return employeeDTOs.stream()
             .filter(Objects::nonNull)
@@ -86,6 +96,7 @@ public class EmployeeMapper {
             employee.setFirmStreet(employeeDTO.getFirmStreet());
             employee.setFirmPostalCode(employeeDTO.getFirmPostalCode());
             employee.setFirmCity(employeeDTO.getFirmCity());
+            employee.setVersion(employeeDTO.getVersion());
 
             return employee;
         }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service.mapper;
+
+import com.ibm.ssi.controller.company.domain.InvitationDelivery;
+import com.ibm.ssi.controller.company.service.dto.InvitationDeliveryDTO;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * Mapper for the entity {@link InvitationDelivery} and its DTO called {@link InvitationDeliveryDTO}.
+ */
+@Service
+public class InvitationDeliveryMapper {
+
+    public InvitationDeliveryDTO invitationDeliveryToInvitationDeliveryDTO(InvitationDelivery delivery) {
+        if (delivery == null) {
+            return null;
+        } else {
+            InvitationDeliveryDTO deliveryDTO = new InvitationDeliveryDTO();
+            deliveryDTO.setDeliveryId(delivery.getId());
+            deliveryDTO.setEmployeeId(delivery.getEmployeeId());
+            deliveryDTO.setStatus(delivery.getStatus().name());
+            deliveryDTO.setAttempts(delivery.getAttempts());
+            deliveryDTO.setSentDate(delivery.getSentDate());
+            deliveryDTO.setError(delivery.getError());
+            return deliveryDTO;
+        }
+    }
+}
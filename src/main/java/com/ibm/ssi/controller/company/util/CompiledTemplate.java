@@ -0,0 +1,83 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A text template with {@code {{NAME}}} placeholders, parsed once into its literal and placeholder segments.
+ *
+ * Rendering sizes the result up front and appends each segment once, instead of a full pass over the text per
+ * placeholder. Placeholders without a value are kept as they are.
+ */
+public final class CompiledTemplate {
+
+    private static final String PLACEHOLDER_START = "{{";
+
+    private static final String PLACEHOLDER_END = "}}";
+
+    private final String[] literals;
+
+    private final String[] placeholders;
+
+    private final int literalLength;
+
+    private CompiledTemplate(List<String> literals, List<String> placeholders) {
+        this.literals = literals.toArray(new String[0]);
+        this.placeholders = placeholders.toArray(new String[0]);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int start = source.indexOf(PLACEHOLDER_START, position);
+            int end = start < 0 ? -1 : source.indexOf(PLACEHOLDER_END, start + PLACEHOLDER_START.length());
+            if (end < 0) {
+                break;
+            }
+            literals.add(source.substring(position, start));
+            placeholders.add(source.substring(start + PLACEHOLDER_START.length(), end));
+            position = end + PLACEHOLDER_END.length();
+        }
+        literals.add(source.substring(position));
+
+        return new CompiledTemplate(literals, placeholders);
+    }
+
+    public String render(Map<String, String> values) {
+        String[] placeholderValues = new String[placeholders.length];
+        int length = literalLength;
+        for (int i = 0; i < placeholders.length; i++) {
+            String value = values.containsKey(placeholders[i]) ? values.get(placeholders[i])
+                : PLACEHOLDER_START + placeholders[i] + PLACEHOLDER_END;
+            placeholderValues[i] = value != null ? value : "";
+            length += placeholderValues[i].length();
+        }
+
+        StringBuilder result = new StringBuilder(length);
+        for (int i = 0; i < placeholders.length; i++) {
+            result.append(literals[i]).append(placeholderValues[i]);
+        }
+        return result.append(literals[literals.length - 1]).toString();
+    }
+}
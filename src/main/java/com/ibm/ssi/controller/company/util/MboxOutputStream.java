@@ -0,0 +1,154 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Writes messages in the mboxrd format: every message starts with a {@code From } separator line and ends with an
+ * empty line, and lines of the messages matching {@code >*From } are quoted with another {@code >}.
+ *
+ * The quoting only looks at the start of each line, so the messages are passed through in chunks otherwise.
+ */
+public final class MboxOutputStream extends FilterOutputStream {
+
+    private static final byte[] FROM = "From ".getBytes(StandardCharsets.US_ASCII);
+
+    private static final DateTimeFormatter SEPARATOR_DATE = DateTimeFormatter
+        .ofPattern("EEE MMM ppd HH:mm:ss yyyy", Locale.US).withZone(ZoneOffset.UTC);
+
+    private boolean inMessage;
+
+    // whether the current line may still turn out to be a "From " line
+    private boolean atLineStart;
+
+    private int pendingQuotes;
+
+    private int pendingFrom;
+
+    private int lastByte = '\n';
+
+    public MboxOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * End the current message, if any, and start the next one.
+     *
+     * @param sender the sender for the separator line.
+     * @param date the date for the separator line.
+     */
+    public void nextMessage(String sender, Instant date) throws IOException {
+        this.endMessage();
+        out.write(("From " + sender + " " + SEPARATOR_DATE.format(date) + "\n").getBytes(StandardCharsets.US_ASCII));
+        inMessage = true;
+        atLineStart = true;
+        lastByte = '\n';
+    }
+
+    /**
+     * End the last message. The underlying stream is flushed, but not closed.
+     */
+    public void finish() throws IOException {
+        this.endMessage();
+        out.flush();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (atLineStart) {
+            if (pendingFrom == 0 && b == '>') {
+                pendingQuotes++;
+                return;
+            }
+            if (b == FROM[pendingFrom]) {
+                pendingFrom++;
+                if (pendingFrom == FROM.length) {
+                    out.write('>');
+                    this.writePending();
+                }
+                return;
+            }
+            this.writePending();
+        }
+
+        out.write(b);
+        lastByte = b;
+        atLineStart = b == '\n';
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        int end = off + len;
+        while (off < end) {
+            if (atLineStart) {
+                this.write(b[off++]);
+                continue;
+            }
+
+            int lineEnd = off;
+            while (lineEnd < end && b[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            int chunkEnd = lineEnd < end ? lineEnd + 1 : end;
+            out.write(b, off, chunkEnd - off);
+            lastByte = b[chunkEnd - 1];
+            atLineStart = lastByte == '\n';
+            off = chunkEnd;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.finish();
+        super.close();
+    }
+
+    private void writePending() throws IOException {
+        for (; pendingQuotes > 0; pendingQuotes--) {
+            out.write('>');
+            lastByte = '>';
+        }
+        if (pendingFrom > 0) {
+            out.write(FROM, 0, pendingFrom);
+            lastByte = FROM[pendingFrom - 1];
+            pendingFrom = 0;
+        }
+        atLineStart = false;
+    }
+
+    private void endMessage() throws IOException {
+        if (!inMessage) {
+            return;
+        }
+        this.writePending();
+        if (lastByte != '\n') {
+            out.write('\n');
+        }
+        out.write('\n');
+        inMessage = false;
+        atLineStart = false;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import com.google.zxing.common.BitMatrix;
+
+/**
+ * Writes a {@link BitMatrix} as 1-bit grayscale PNG, without an intermediate image.
+ *
+ * A set bit is written as black pixel. The deflater and the row and output buffers are reused per thread, so
+ * encoding a QR code only allocates the returned bytes.
+ */
+public final class QRCodePngEncoder {
+
+    private static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+    private static final byte[] IHDR = "IHDR".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] IDAT = "IDAT".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] IEND = "IEND".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int IDAT_CHUNK_SIZE = 8192;
+
+    private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+    private QRCodePngEncoder() {
+    }
+
+    public static byte[] toPng(BitMatrix matrix) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream(1024);
+        try {
+            writePng(matrix, os);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return os.toByteArray();
+    }
+
+    public static void writePng(BitMatrix matrix, OutputStream os) throws IOException {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        Buffers buffers = BUFFERS.get();
+
+        os.write(SIGNATURE);
+
+        byte[] header = buffers.header;
+        putInt(header, 0, width);
+        putInt(header, 4, height);
+        header[8] = 1; // bit depth
+        header[9] = 0; // color type grayscale
+        header[10] = 0; // compression method
+        header[11] = 0; // filter method
+        header[12] = 0; // no interlace
+        writeChunk(os, IHDR, header, header.length, buffers.crc);
+
+        // each row starts with its filter type, followed by 8 pixels per byte
+        int rowLength = 1 + (width + 7) / 8;
+        if (buffers.row.length < rowLength) {
+            buffers.row = new byte[rowLength];
+        }
+        byte[] row = buffers.row;
+        byte[] compressed = buffers.compressed;
+        Deflater deflater = buffers.deflater;
+        deflater.reset();
+
+        int pending = 0;
+        for (int y = 0; y < height; y++) {
+            Arrays.fill(row, 0, rowLength, (byte) 0);
+            for (int x = 0; x < width; x++) {
+                if (!matrix.get(x, y)) {
+                    row[1 + (x >> 3)] |= 0x80 >>> (x & 7);
+                }
+            }
+            deflater.setInput(row, 0, rowLength);
+            while (!deflater.needsInput()) {
+                pending += deflater.deflate(compressed, pending, compressed.length - pending);
+                if (pending == compressed.length) {
+                    writeChunk(os, IDAT, compressed, pending, buffers.crc);
+                    pending = 0;
+                }
+            }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            pending += deflater.deflate(compressed, pending, compressed.length - pending);
+            if (pending == compressed.length) {
+                writeChunk(os, IDAT, compressed, pending, buffers.crc);
+                pending = 0;
+            }
+        }
+        if (pending > 0) {
+            writeChunk(os, IDAT, compressed, pending, buffers.crc);
+        }
+
+        writeChunk(os, IEND, header, 0, buffers.crc);
+    }
+
+    private static void writeChunk(OutputStream os, byte[] type, byte[] data, int length, CRC32 crc) throws IOException {
+        writeInt(os, length);
+        os.write(type);
+        os.write(data, 0, length);
+        crc.reset();
+        crc.update(type);
+        crc.update(data, 0, length);
+        writeInt(os, (int) crc.getValue());
+    }
+
+    private static void writeInt(OutputStream os, int value) throws IOException {
+        os.write(value >>> 24);
+        os.write(value >>> 16);
+        os.write(value >>> 8);
+        os.write(value);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+
+    private static final class Buffers {
+
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+        private final byte[] header = new byte[13];
+
+        private final byte[] compressed = new byte[IDAT_CHUNK_SIZE];
+
+        private final CRC32 crc = new CRC32();
+
+        private byte[] row = new byte[0];
+    }
+}
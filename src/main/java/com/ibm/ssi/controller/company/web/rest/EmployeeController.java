@@ -16,38 +16,57 @@
 
 package com.ibm.ssi.controller.company.web.rest;
 
-import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
 import javax.validation.Valid;
 
 import com.ibm.ssi.controller.company.client.ACAPYClient;
 import com.ibm.ssi.controller.company.service.CSVToEmployeeService;
+import com.ibm.ssi.controller.company.service.EmployeeImportService;
 import com.ibm.ssi.controller.company.service.EmployeeService;
+import com.ibm.ssi.controller.company.service.EmployeeService.InvitationBundleFormat;
+import com.ibm.ssi.controller.company.service.InvitationDeliveryService;
 import com.ibm.ssi.controller.company.service.IssuedCredentialService;
 import com.ibm.ssi.controller.company.service.QRCodeGeneratorService;
+import com.ibm.ssi.controller.company.service.dto.EmployeeBulkResultDTO;
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeImportJobDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeImportResultDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeInvitationResultDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSelectionDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSummaryDTO;
+import com.ibm.ssi.controller.company.service.dto.InvitationDeliveryDTO;
 import com.ibm.ssi.controller.company.service.dto.InvitationResponseDTO;
 import com.ibm.ssi.controller.company.service.exceptions.ConnectionNotFoundException;
 import com.ibm.ssi.controller.company.service.exceptions.EMailGenerationException;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeAlreadyExistsException;
+import com.ibm.ssi.controller.company.service.exceptions.EmployeeModifiedException;
 import com.ibm.ssi.controller.company.service.exceptions.EmployeeNotFoundException;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidEmployeeSelectionException;
 import com.ibm.ssi.controller.company.service.exceptions.IssuedCredentialNotFoundException;
 import com.ibm.ssi.controller.company.service.exceptions.InvalidCSVFileException;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidJSONException;
 import com.ibm.ssi.controller.company.service.exceptions.QRCodeGenerationException;
+import com.ibm.ssi.controller.company.service.exceptions.RenderingCapacityExceededException;
 import com.opencsv.exceptions.CsvException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -58,15 +77,20 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import io.github.jhipster.web.util.PaginationUtil;
 import io.github.jhipster.web.util.ResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -80,9 +104,27 @@ public class EmployeeController {
 
     private final Logger log = LoggerFactory.getLogger(EmployeeController.class);
 
+    private static final String VIEW_FULL = "full";
+
+    private static final String VIEW_SUMMARY = "summary";
+
+    private static final String IMAGE_SVG_VALUE = "image/svg+xml";
+
+    private static final MediaType IMAGE_SVG = MediaType.parseMediaType(IMAGE_SVG_VALUE);
+
+    private static final String APPLICATION_ZIP_VALUE = "application/zip";
+
+    private static final String APPLICATION_MBOX_VALUE = "application/mbox";
+
     @Autowired
     EmployeeService employeeService;
 
+    @Autowired
+    InvitationDeliveryService invitationDeliveryService;
+
+    @Autowired
+    EmployeeImportService employeeImportService;
+
     @Autowired
     QRCodeGeneratorService qrCodeGeneratorService;
 
@@ -127,25 +169,154 @@ public class EmployeeController {
         }
     }
 
-    @PostMapping(path = "/employee/{employeeId}/create-invitation/qr", produces = MediaType.IMAGE_PNG_VALUE)
+    /**
+     * {@code POST  /employee/invitations} : create invitations for several employees.
+     *
+     * @param selection the ids of the employees, or filters selecting them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the invitation url or the reason
+     *         of the failure per employee, or with status {@code 400 (Bad Request)} if the selection is empty or too
+     *         large.
+     */
+    @PostMapping(path = "/employee/invitations", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<List<EmployeeInvitationResultDTO>> createInvitations(@RequestBody EmployeeSelectionDTO selection) {
+
+        log.debug("REST request to create invitations for : {}", selection);
+
+        List<String> employeeIds = this.getEmployeeIds(selection);
+        return ResponseEntity.ok(this.employeeService.createEmployeeInvitations(employeeIds));
+    }
+
+    /**
+     * {@code POST  /employee/{employeeId}/create-invitation/qr} : create an invitation for an employee as QR code.
+     *
+     * @param employeeId the id of the employee.
+     * @param accept the accepted media types, {@code image/svg+xml} is served as SVG if preferred to
+     *        {@code image/png}, otherwise as PNG.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the QR code, or with status
+     *         {@code 404 (Not Found)}, or with status {@code 503 (Service Unavailable)} and a {@code Retry-After}
+     *         header if too many invitations are rendered at the moment.
+     */
+    @PostMapping(path = "/employee/{employeeId}/create-invitation/qr", produces = { MediaType.IMAGE_PNG_VALUE, IMAGE_SVG_VALUE })
     @Operation
     @SecurityRequirement(name = "X-API-Key")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<InputStreamResource> createInvitationbyQR(@PathVariable String employeeId) throws IOException {
+    public ResponseEntity<StreamingResponseBody> createInvitationbyQR(@PathVariable String employeeId,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) throws IOException {
 
         try {
-            byte[] qrCode = this.employeeService.createEmployeeInvitationAsQRCode(employeeId);
-            InputStream is = new ByteArrayInputStream(qrCode);
+            byte[] qrCode;
+            MediaType contentType;
+            if (prefersSvg(accept)) {
+                qrCode = this.employeeService.createEmployeeInvitationAsSVGQRCode(employeeId).getBytes(StandardCharsets.UTF_8);
+                contentType = IMAGE_SVG;
+            } else {
+                qrCode = this.employeeService.createEmployeeInvitationAsQRCode(employeeId);
+                contentType = MediaType.IMAGE_PNG;
+            }
+            // the rendered code is written as is, without copying it into a stream first
 
             return ResponseEntity.ok()
-                .contentType(MediaType.IMAGE_PNG)
+                .contentType(contentType)
                 .contentLength(qrCode.length)
-                .body(new InputStreamResource(is));
+                .body(os -> os.write(qrCode));
         } catch (EmployeeNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (QRCodeGenerationException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        } catch (RenderingCapacityExceededException e) {
+            return serviceUnavailable(e);
+        }
+    }
+
+    private List<String> getEmployeeIds(EmployeeSelectionDTO selection) {
+        try {
+            return this.employeeService.getEmployeeIds(selection);
+        } catch (InvalidEmployeeSelectionException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    private static boolean prefersSvg(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            // PNG stays the default for wildcards
+            if (mediaType.includes(MediaType.IMAGE_PNG)) {
+                return false;
+            }
+            if (mediaType.includes(IMAGE_SVG)) {
+                return true;
+            }
         }
+        return false;
+    }
+
+    /**
+     * {@code POST  /employee/invitations/qr} : create invitations for several employees as ZIP of QR codes.
+     *
+     * The ZIP is streamed entry by entry while the invitations are created.
+     *
+     * @param selection the ids of the employees, or filters selecting them.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the ZIP with one PNG per
+     *         employee. Failed invitations are listed in the entry {@code failures.txt}. Status
+     *         {@code 400 (Bad Request)} if the selection is empty or too large.
+     */
+    @PostMapping(path = "/employee/invitations/qr", consumes = MediaType.APPLICATION_JSON_VALUE, produces = APPLICATION_ZIP_VALUE)
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(type = "file")))
+    public ResponseEntity<StreamingResponseBody> createInvitationsByQR(@RequestBody EmployeeSelectionDTO selection) {
+
+        log.debug("REST request to create invitations as QR codes for : {}", selection);
+
+        List<String> employeeIds = this.getEmployeeIds(selection);
+        StreamingResponseBody body = os -> this.employeeService.createEmployeeInvitationsAsQRCodeZip(employeeIds, os);
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(APPLICATION_ZIP_VALUE))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invitations.zip\"")
+            .body(body);
+    }
+
+    /**
+     * {@code POST  /employee/invitations/e-mail} : create invitations for several employees as bundle of ready to send
+     * e-mails.
+     *
+     * The bundle is streamed message by message while the invitations are created and rendered.
+     *
+     * @param selection the ids of the employees, or filters selecting them.
+     * @param format {@code ZIP} for one {@code .eml} entry per employee, or {@code MBOX} for one mbox file.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the bundle. Failed invitations
+     *         are listed in the entry {@code failures.txt} of a ZIP, or in a last message with the subject
+     *         {@code Failed invitations} of an mbox. Status {@code 400 (Bad Request)} if the selection is empty or
+     *         too large.
+     */
+    @PostMapping(path = "/employee/invitations/e-mail", consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = { APPLICATION_ZIP_VALUE, APPLICATION_MBOX_VALUE })
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(type = "file")))
+    public ResponseEntity<StreamingResponseBody> createInvitationsByEMail(@RequestBody EmployeeSelectionDTO selection,
+            @RequestParam(defaultValue = "ZIP") InvitationBundleFormat format) {
+
+        log.debug("REST request to create invitations as e-mail {} for : {}", format, selection);
+
+        List<String> employeeIds = this.getEmployeeIds(selection);
+        StreamingResponseBody body = os -> this.employeeService.createEmployeeInvitationsAsEmailBundle(employeeIds, format, os);
+
+        boolean mbox = format == InvitationBundleFormat.MBOX;
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(mbox ? APPLICATION_MBOX_VALUE : APPLICATION_ZIP_VALUE))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invitations." + (mbox ? "mbox" : "zip") + "\"")
+            .body(body);
     }
 
     @PostMapping(path = "/employee/{employeeId}/create-invitation/e-mail", produces = MediaType.TEXT_PLAIN_VALUE)
@@ -153,24 +324,105 @@ public class EmployeeController {
     @SecurityRequirement(name = "X-API-Key")
     @SecurityRequirement(name = "bearerAuth")
     @ApiResponse(responseCode = "200", description = "OK", content = @Content(schema = @Schema(type = "file")))
-    public ResponseEntity<InputStreamResource> createInvitationAsEMail(@PathVariable String employeeId) throws IOException {
+    public ResponseEntity<StreamingResponseBody> createInvitationAsEMail(@PathVariable String employeeId) throws IOException {
 
         try {
-            byte[] email = this.employeeService.createEmployeeInvitationAsEmail(employeeId);
-            InputStream is = new ByteArrayInputStream(email);
+            MimeMessage email = this.employeeService.createEmployeeInvitationAsMimeMessage(employeeId);
 
+            // the message is encoded straight into the response
             return ResponseEntity.ok()
                 .contentType(MediaType.TEXT_PLAIN)
-                .contentLength(email.length)
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + employeeId + "-invitation.eml\"")
-                .body(new InputStreamResource(is));
+                .body(os -> writeMessage(email, os));
         } catch (EmployeeNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
         } catch (EMailGenerationException e) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage());
+        } catch (RenderingCapacityExceededException e) {
+            return serviceUnavailable(e);
+        }
+    }
+
+    /**
+     * {@code POST  /employee/{employeeId}/create-invitation/smtp} : send the invitation e-mail of an employee over
+     * SMTP in the background.
+     *
+     * @param employeeId the id of the employee.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, the delivery in body and its location
+     *         in the {@code Location} header, or with status {@code 404 (Not Found)}.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping("/employee/{employeeId}/create-invitation/smtp")
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<InvitationDeliveryDTO> deliverInvitation(@PathVariable String employeeId) throws URISyntaxException {
+
+        log.debug("REST request to send the invitation e-mail of Employee : {}", employeeId);
+
+        try {
+            InvitationDeliveryDTO delivery = this.invitationDeliveryService.deliverInvitation(employeeId);
+            return ResponseEntity.accepted()
+                .location(new URI("/api/employee/invitations/deliveries/" + delivery.getDeliveryId()))
+                .body(delivery);
+        } catch (EmployeeNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    /**
+     * {@code POST  /employee/invitations/smtp} : send the invitation e-mails of several employees over SMTP in the
+     * background.
+     *
+     * @param selection the ids of the employees, or filters selecting them.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)} and with body the deliveries, one per
+     *         employee, or with status {@code 400 (Bad Request)} if the selection is empty or too large.
+     */
+    @PostMapping(path = "/employee/invitations/smtp", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<List<InvitationDeliveryDTO>> deliverInvitations(@RequestBody EmployeeSelectionDTO selection) {
+
+        log.debug("REST request to send the invitation e-mails for : {}", selection);
+
+        List<String> employeeIds = this.getEmployeeIds(selection);
+        return ResponseEntity.accepted().body(this.invitationDeliveryService.deliverInvitations(employeeIds));
+    }
+
+    /**
+     * {@code GET  /employee/invitations/deliveries/{deliveryId}} : get the state of the delivery of an invitation
+     * e-mail.
+     *
+     * @param deliveryId the id of the delivery.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the delivery, or with status
+     *         {@code 404 (Not Found)}.
+     */
+    @GetMapping("/employee/invitations/deliveries/{deliveryId}")
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<InvitationDeliveryDTO> getInvitationDelivery(@PathVariable String deliveryId) {
+
+        log.debug("REST request to get the invitation delivery: {}", deliveryId);
+
+        return ResponseUtil.wrapOrNotFound(this.invitationDeliveryService.getDelivery(deliveryId));
+    }
+
+    private static void writeMessage(MimeMessage message, OutputStream os) throws IOException {
+        try {
+            message.writeTo(os);
+        } catch (MessagingException e) {
+            throw new IOException(e);
         }
     }
 
+    private static <T> ResponseEntity<T> serviceUnavailable(RenderingCapacityExceededException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .build();
+    }
+
     /**
      * {@code POST  /employee} : Create a new Employee.
      *
@@ -198,12 +450,41 @@ public class EmployeeController {
         }
     }
 
+    /**
+     * {@code POST  /employee/bulk} : Create new Employees from a JSON array.
+     *
+     * The array is streamed from the request body and written in unordered batches, a failing employee does not
+     * prevent the others from being created.
+     *
+     * @param employeesJson the request body, a JSON array of EmployeeDTOs.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of created
+     *         employees and the failed ones with their position in the array, or with status
+     *         {@code 400 (Bad Request)} if the body is not a JSON array.
+     */
+    @PostMapping(path = "/employee/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+        mediaType = MediaType.APPLICATION_JSON_VALUE, array = @ArraySchema(schema = @Schema(implementation = EmployeeDTO.class)))))
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<EmployeeBulkResultDTO> createEmployees(InputStream employeesJson) {
+
+        log.debug("REST request to create new Employees in bulk");
+
+        try {
+            return ResponseEntity.ok(this.employeeService.createEmployees(employeesJson));
+        } catch (InvalidJSONException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     /**
      * {@code POST  /employee/csv} : Create new Employee(s) by csv file.
      *
-     * @body employeeDTO
-     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with the
-     *         bodies of the new EmployeeDTO(s), or with status {@code 400 (Bad Request)} if
+     * @param file the CSV file.
+     * @param incremental if {@code true}, existing employees are matched by email, unchanged rows are skipped and
+     *        changed rows update the employee.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with the number of
+     *         parsed, created, updated, skipped and failed rows, or with status {@code 400 (Bad Request)} if
      *         the file is not valid.
      * @throws CsvException
      * @throws FileNotFoundException
@@ -212,18 +493,64 @@ public class EmployeeController {
     @Operation
     @SecurityRequirement(name = "X-API-Key")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<List<EmployeeDTO>> createEmployeeByCsv(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<EmployeeImportResultDTO> createEmployeeByCsv(@RequestParam("file") MultipartFile file,
+            @RequestParam(name = "incremental", required = false, defaultValue = "false") boolean incremental) {
 
         log.debug("REST request to create new Employee(s) by CSV: {}", file);
         try {
-            List<EmployeeDTO> addedEmployees = this.employeeService.createEmployeeByCsv(file);
-            return new ResponseEntity<List<EmployeeDTO>>(addedEmployees, new HttpHeaders(), HttpStatus.OK);
+            EmployeeImportResultDTO importResult = this.employeeService.createEmployeeByCsv(file, incremental);
+            return new ResponseEntity<EmployeeImportResultDTO>(importResult, new HttpHeaders(), HttpStatus.OK);
         } catch (InvalidCSVFileException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
 
+    /**
+     * {@code POST  /employee/csv/jobs} : Start the import of Employee(s) by csv file in the background.
+     *
+     * @param file the CSV file.
+     * @param incremental see {@link #createEmployeeByCsv(MultipartFile, boolean)}.
+     * @return the {@link ResponseEntity} with status {@code 202 (Accepted)}, the job in body and its
+     *         location in the {@code Location} header, or with status {@code 400 (Bad Request)} if the
+     *         file cannot be read.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PostMapping(path = "/employee/csv/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<EmployeeImportJobDTO> startEmployeeImportByCsv(@RequestParam("file") MultipartFile file,
+            @RequestParam(name = "incremental", required = false, defaultValue = "false") boolean incremental)
+            throws URISyntaxException {
+
+        log.debug("REST request to start an import of Employee(s) by CSV: {}", file);
+        try {
+            EmployeeImportJobDTO job = this.employeeImportService.startCsvImport(file, incremental);
+            return ResponseEntity.accepted().location(new URI("/api/employee/csv/jobs/" + job.getJobId())).body(job);
+        } catch (InvalidCSVFileException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * {@code GET  /employee/csv/jobs/{jobId}} : get the state and progress of a csv import.
+     *
+     * @param jobId the id of the import job.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the job, or with
+     *         status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/employee/csv/jobs/{jobId}")
+    @Operation
+    @SecurityRequirement(name = "X-API-Key")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<EmployeeImportJobDTO> getEmployeeImport(@PathVariable String jobId) {
+
+        log.debug("REST request to get the Employee import: {}", jobId);
+
+        return ResponseUtil.wrapOrNotFound(this.employeeImportService.getImportJob(jobId));
+    }
+
     /**
      * {@code POST  /employee/resend-credential} : Resend the credential
      *
@@ -259,7 +586,8 @@ public class EmployeeController {
      *
      * @return the {@link ResponseEntity} with status {@code 200 (Updated)} and with
      *         body the new EmployeeDTO, or with status {@code 400 (Bad Request)} if
-     *         something goes wrong.
+     *         something goes wrong, or with status {@code 409 (Conflict)} if the given
+     *         version is outdated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/employee")
@@ -276,23 +604,43 @@ public class EmployeeController {
             return new ResponseEntity<EmployeeDTO>(updatedEmployee, new HttpHeaders(), HttpStatus.OK);
         } catch (EmployeeNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (EmployeeModifiedException e) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
         }
     }
 
     /**
-     * {@code GET  /employee} : get all employees stored in the databse.
+     * {@code GET  /employee} : get a page of the employees stored in the databse.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of employees in body
+     * @param firmName only return employees of this firm, if set.
+     * @param firmCity only return employees whose firm is in this city, if set.
+     * @param lastName only return employees with this last name, if set.
+     * @param view {@code full} (default) for all fields, {@code summary} for only the id and name of each employee.
+     * @param pageable the pagination information ({@code page}, {@code size} and {@code sort} query parameters).
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)}, the pagination headers
+     *         ({@code X-Total-Count}, {@code Link}) and the list of employees in body, or with status
+     *         {@code 400 (Bad Request)} if the view is unknown.
      */
     @GetMapping("/employee")
     @Operation
     @SecurityRequirement(name="X-API-Key")
     @SecurityRequirement(name="bearerAuth")
-    public ResponseEntity<List<EmployeeDTO>> getAllEmployees() throws URISyntaxException {
-
-        log.debug("REST request to get all employees");
-
-        return ResponseEntity.ok(this.employeeService.getAllEmployees());
+    public ResponseEntity<List<? extends EmployeeSummaryDTO>> getAllEmployees(@RequestParam(required = false) String firmName,
+            @RequestParam(required = false) String firmCity, @RequestParam(required = false) String lastName,
+            @RequestParam(required = false, defaultValue = VIEW_FULL) String view, Pageable pageable) throws URISyntaxException {
+
+        log.debug("REST request to get a page of employees: {} (view {})", pageable, view);
+
+        Page<? extends EmployeeSummaryDTO> page;
+        if (VIEW_SUMMARY.equalsIgnoreCase(view)) {
+            page = this.employeeService.getAllEmployeeSummaries(firmName, firmCity, lastName, pageable);
+        } else if (VIEW_FULL.equalsIgnoreCase(view)) {
+            page = this.employeeService.getAllEmployees(firmName, firmCity, lastName, pageable);
+        } else {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown view: " + view);
+        }
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
     /**
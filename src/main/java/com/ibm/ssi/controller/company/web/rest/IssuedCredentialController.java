@@ -17,15 +17,20 @@
 package com.ibm.ssi.controller.company.web.rest;
 
 import java.net.URISyntaxException;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
 import com.ibm.ssi.controller.company.service.IssuedCredentialService;
 import com.ibm.ssi.controller.company.service.dto.IssuedCredentialDTO;
+import com.ibm.ssi.controller.company.service.dto.IssuedCredentialPageDTO;
+import com.ibm.ssi.controller.company.service.exceptions.InvalidContinuationTokenException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -33,6 +38,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import io.github.jhipster.web.util.ResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
@@ -46,23 +52,51 @@ public class IssuedCredentialController {
 
     private final Logger log = LoggerFactory.getLogger(IssuedCredentialController.class);
 
+    public static final String CONTINUATION_TOKEN_HEADER = "X-Continuation-Token";
+
+    private static final int MAX_PAGE_SIZE = 2000;
+
     @Autowired
     IssuedCredentialService issuedCredentialService;
 
     /**
-     * {@code GET  /issued-credential} : get all issued-credential stored in the databse.
+     * {@code GET  /issued-credential} : get a slice of the issued-credential stored in the databse, ordered by
+     * issuance date.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of issued credentials in body
+     * @param issuedFrom only return credentials issued at or after this ISO-8601 instant, if set.
+     * @param issuedTo only return credentials issued before this ISO-8601 instant, if set.
+     * @param continuation the {@code X-Continuation-Token} of the previous response, omitted for the first slice.
+     * @param size the maximum number of issued credentials to return.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of issued credentials in body.
+     *         The {@code X-Continuation-Token} header is set if there are more issued credentials. Status
+     *         {@code 400 (Bad Request)} if the token or size is invalid.
      */
     @GetMapping("/issued-credential")
     @Operation
     @SecurityRequirement(name="X-API-Key")
     @SecurityRequirement(name="bearerAuth")
-    public List<IssuedCredentialDTO> getAllIssuedCredentials() throws URISyntaxException {
-
-        log.debug("REST request to get all issued credentials");
-
-        return this.issuedCredentialService.getAllIssuedCredential();
+    public ResponseEntity<List<IssuedCredentialDTO>> getAllIssuedCredentials(
+            @RequestParam(name = "issuedFrom", required = false) Instant issuedFrom,
+            @RequestParam(name = "issuedTo", required = false) Instant issuedTo,
+            @RequestParam(name = "continuation", required = false) String continuation,
+            @RequestParam(name = "size", required = false, defaultValue = "20") int size) throws URISyntaxException {
+
+        log.debug("REST request to get issued credentials after {}", continuation);
+
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        try {
+            IssuedCredentialPageDTO page = this.issuedCredentialService.getIssuedCredentials(issuedFrom, issuedTo, continuation, size);
+            HttpHeaders headers = new HttpHeaders();
+            if (page.getContinuationToken() != null) {
+                headers.add(CONTINUATION_TOKEN_HEADER, page.getContinuationToken());
+            }
+            return ResponseEntity.ok().headers(headers).body(page.getIssuedCredentials());
+        } catch (InvalidContinuationTokenException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     /**
@@ -19,9 +19,9 @@ package com.ibm.ssi.controller.company.web.rest;
 import java.util.Date;
 
 import com.ibm.ssi.controller.company.client.ACAPYClient;
-import com.ibm.ssi.controller.company.client.model.ConnectionRecordDTO;
 import com.ibm.ssi.controller.company.client.model.IssueCredentialRecordDTO;
 import com.ibm.ssi.controller.company.domain.IssuedCredential;
+import com.ibm.ssi.controller.company.service.ConnectionAliasService;
 import com.ibm.ssi.controller.company.service.EmployeeService;
 import com.ibm.ssi.controller.company.service.IssuedCredentialService;
 import com.ibm.ssi.controller.company.service.dto.WebhookConnectionDTO;
@@ -58,6 +58,9 @@ public class WebhookController {
     @Autowired
     IssuedCredentialService issuedCredentialService;
 
+    @Autowired
+    ConnectionAliasService connectionAliasService;
+
     @Value("${ssibk.company.controller.agent.apikey}")
     private String apiKey;
 
@@ -67,6 +70,12 @@ public class WebhookController {
     @Operation(security = @SecurityRequirement(name = "X-API-Key"))
     public ResponseEntity<Void> onConnectionsWebhook(@RequestBody WebhookConnectionDTO connectionDTO) {
 
+        // remember the alias of the connection, so the issue credential webhook does not have to ask the agent
+        String alias = connectionDTO.getAlias();
+        if (alias != null && !alias.equals(this.connectionAliasService.getAlias(connectionDTO.getConnectionId()).orElse(null))) {
+            this.connectionAliasService.saveAlias(connectionDTO.getConnectionId(), alias);
+        }
+
         // connection is in state "response" as soon as a user has accepted it in his
         // wallet app
         if (connectionDTO.getState().equals("response")) {
@@ -90,13 +99,15 @@ public class WebhookController {
 
         if (webhookIssueCredentialDTO.getState().equals("credential_issued")){
 
-            // Get Alias for Connection-ID:
-            ConnectionRecordDTO connectionRecordDTO = this.acapyClient.getConnectionRecordById(apiKey, webhookIssueCredentialDTO.getConnectionId());
+            // Get Alias for Connection-ID, from the agent only if the connections webhook has not delivered it:
+            String connectionId = webhookIssueCredentialDTO.getConnectionId();
+            String alias = this.connectionAliasService.getAlias(connectionId).orElseGet(() ->
+                this.connectionAliasService.saveAlias(connectionId, this.acapyClient.getConnectionRecordById(apiKey, connectionId).getAlias()));
 
             IssueCredentialRecordDTO issueCredentialRecordDTO = this.acapyClient.getIssueCredentialRecord(apiKey, webhookIssueCredentialDTO.getCredentialExchangeId());
 
             IssuedCredential issuedCredential = new IssuedCredential();
-            issuedCredential.setId(connectionRecordDTO.getAlias());
+            issuedCredential.setId(alias);
             issuedCredential.setRevocationRegistryId(issueCredentialRecordDTO.getRev_reg_id());
             issuedCredential.setCredentialRevocationId(issueCredentialRecordDTO.getRev_id());
             issuedCredential.setIssuanceDate(new Date());
@@ -107,8 +118,9 @@ public class WebhookController {
             // delete cred_ex_record on agent
             this.acapyClient.deleteIssueCredentialRecord(apiKey, webhookIssueCredentialDTO.getCredentialExchangeId());
 
-            // Delete data set in employee database
-            this.employeeService.deleteEmployeeById(connectionRecordDTO.getAlias());
+            // Delete data set in employee database, and the alias of its connection with it
+            this.employeeService.deleteEmployeeById(alias);
+            this.connectionAliasService.deleteAlias(connectionId);
 
         }
 
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.ibm.ssi.controller.company.client.model.ConnectionsRecordDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationRequestDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationResultDTO;
+import com.ibm.ssi.controller.company.client.model.IssueCredentialRecordDTO;
+import com.ibm.ssi.controller.company.config.ResilienceConfiguration;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+
+public class AsyncACAPYClientTest {
+
+    private static final String API_KEY = "key";
+
+    private MockWebServer agent;
+
+    private AsyncACAPYClient client;
+
+    @BeforeEach
+    public void init() throws IOException {
+        agent = new MockWebServer();
+        agent.start();
+
+        client = new AsyncACAPYClient();
+        client.webClientBuilder = WebClient.builder();
+        client.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .recordException(ResilienceConfiguration::isAgentUnavailable)
+            .build());
+        client.bulkheadRegistry = BulkheadRegistry.ofDefaults();
+        client.retryRegistry = RetryRegistry.of(RetryConfig.custom()
+            .maxAttempts(2)
+            .waitDuration(Duration.ofMillis(1))
+            .retryOnException(ResilienceConfiguration::isAgentUnavailable)
+            .build());
+        client.apiUrl = "http://" + agent.getHostName() + ":" + agent.getPort();
+        client.maxConnections = 4;
+        client.connectTimeoutMillis = 1000;
+        client.getReadTimeoutMillis = 1000;
+        client.postReadTimeoutMillis = 10000;
+        client.deleteReadTimeoutMillis = 1000;
+        client.waitInOpenStateMillis = 30000;
+        client.init();
+    }
+
+    @AfterEach
+    public void shutdown() throws IOException {
+        agent.shutdown();
+    }
+
+    @Test
+    public void createsInvitation() throws Exception {
+        agent.enqueue(json("{\"connection_id\": \"connection\", \"invitation_url\": \"http://agent?c_i=e30=\"}"));
+
+        InvitationResultDTO invitation = client.createInvitation(API_KEY, "ID 1", new InvitationRequestDTO()).join();
+
+        assertThat(invitation.getConnectionId()).isEqualTo("connection");
+        assertThat(invitation.getInvitationUrl()).isEqualTo("http://agent?c_i=e30=");
+        RecordedRequest request = agent.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).isEqualTo("/connections/create-invitation?alias=ID%201");
+        assertThat(request.getHeader("X-API-KEY")).isEqualTo(API_KEY);
+    }
+
+    @Test
+    public void getsConnectionsByAlias() throws Exception {
+        agent.enqueue(json("{\"results\": [{\"connection_id\": \"connection\", \"alias\": \"ID_1\"}]}"));
+
+        ConnectionsRecordDTO connections = client.getConnectionsRecordByAlias(API_KEY, "ID_1").join();
+
+        assertThat(connections.getConnections()).hasSize(1);
+        assertThat(connections.getConnections()[0].getConnectionId()).isEqualTo("connection");
+        RecordedRequest request = agent.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getMethod()).isEqualTo("GET");
+        assertThat(request.getPath()).isEqualTo("/connections?alias=ID_1");
+        assertThat(request.getHeader("X-API-KEY")).isEqualTo(API_KEY);
+    }
+
+    @Test
+    public void deletesIssueCredentialRecord() throws Exception {
+        agent.enqueue(json("{}"));
+
+        IssueCredentialRecordDTO record = client.deleteIssueCredentialRecord(API_KEY, "exchange").join();
+
+        assertThat(record).isNotNull();
+        RecordedRequest request = agent.takeRequest(1, TimeUnit.SECONDS);
+        assertThat(request.getMethod()).isEqualTo("DELETE");
+        assertThat(request.getPath()).isEqualTo("/issue-credential/records/exchange");
+        assertThat(request.getHeader("X-API-KEY")).isEqualTo(API_KEY);
+    }
+
+    @Test
+    public void appliesTimeoutOfHttpMethod() {
+        // longer than the GET timeout, shorter than the POST timeout
+        for (int i = 0; i < 3; i++) {
+            agent.enqueue(json("{}").setHeadersDelay(2, TimeUnit.SECONDS));
+        }
+
+        assertThatThrownBy(() -> client.getIssueCredentialRecord(API_KEY, "exchange").join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(TimeoutException.class);
+        // the idempotent GET is retried once
+        assertThat(agent.getRequestCount()).isEqualTo(2);
+
+        assertThat(client.createInvitation(API_KEY, "ID_1", new InvitationRequestDTO()).join()).isNotNull();
+    }
+
+    @Test
+    public void failsFastWhenCircuitBreakerIsOpen() {
+        client.circuitBreakerRegistry.circuitBreaker("acapy.get-connection").transitionToOpenState();
+
+        assertThatThrownBy(() -> client.getConnectionRecordById(API_KEY, "connection").join())
+            .isInstanceOf(CompletionException.class)
+            .extracting(Throwable::getCause)
+            .isInstanceOf(AgentUnavailableException.class)
+            .extracting("retryAfterSeconds").isEqualTo(30L);
+        assertThat(agent.getRequestCount()).isZero();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse()
+            .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .setBody(body);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.ssi.controller.company.client.model.ConnectionRecordDTO;
+import com.ibm.ssi.controller.company.client.model.ConnectionsRecordDTO;
+import com.ibm.ssi.controller.company.client.model.CredentialOfferRequestDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationRequestDTO;
+import com.ibm.ssi.controller.company.client.model.InvitationResultDTO;
+import com.ibm.ssi.controller.company.client.model.IssueCredentialRecordDTO;
+import com.ibm.ssi.controller.company.client.model.RevocationRequestDTO;
+import com.ibm.ssi.controller.company.config.ResilienceConfiguration;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.github.resilience4j.retry.RetryRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class ResilientACAPYClientTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private int failingCalls;
+
+    private ResilientACAPYClient client;
+
+    @BeforeEach
+    public void init() {
+        client = new ResilientACAPYClient();
+        client.delegate = new FailingACAPYClient();
+        client.circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(4)
+            .minimumNumberOfCalls(4)
+            .failureRateThreshold(50)
+            .recordException(ResilienceConfiguration::isAgentUnavailable)
+            .build());
+        client.bulkheadRegistry = BulkheadRegistry.ofDefaults();
+        client.retryRegistry = RetryRegistry.of(RetryConfig.custom()
+            .maxAttempts(3)
+            .waitDuration(Duration.ofMillis(1))
+            .retryOnException(ResilienceConfiguration::isAgentUnavailable)
+            .build());
+        client.waitInOpenStateMillis = 30000;
+    }
+
+    @Test
+    public void retriesIdempotentCalls() {
+        failingCalls = 2;
+
+        assertThat(client.getConnectionRecordById("key", "connection")).isNotNull();
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void doesNotRetryOtherCalls() {
+        failingCalls = 1;
+
+        assertThatThrownBy(() -> client.createInvitation("key", "alias", new InvitationRequestDTO()))
+            .isInstanceOf(FeignException.class);
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void failsFastWhenCircuitBreakerIsOpen() {
+        failingCalls = Integer.MAX_VALUE;
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.createInvitation("key", "alias", new InvitationRequestDTO()))
+                .isInstanceOf(FeignException.class);
+        }
+
+        assertThatThrownBy(() -> client.createInvitation("key", "alias", new InvitationRequestDTO()))
+            .isInstanceOf(AgentUnavailableException.class)
+            .extracting("retryAfterSeconds").isEqualTo(30L);
+        assertThat(calls.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void doesNotCountCallsRejectedByBulkhead() {
+        client.bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        Bulkhead bulkhead = client.bulkheadRegistry.bulkhead("acapy");
+        assertThat(bulkhead.tryAcquirePermission()).isTrue();
+
+        try {
+            assertThatThrownBy(() -> client.createInvitation("key", "alias", new InvitationRequestDTO()))
+                .isInstanceOf(AgentUnavailableException.class)
+                .hasCauseInstanceOf(BulkheadFullException.class);
+        } finally {
+            bulkhead.onComplete();
+        }
+
+        CircuitBreaker.Metrics metrics = client.circuitBreakerRegistry.circuitBreaker("acapy.create-invitation").getMetrics();
+        assertThat(metrics.getNumberOfBufferedCalls()).isZero();
+        assertThat(calls.get()).isZero();
+    }
+
+    private FeignException serviceUnavailable() {
+        Request request = Request.create(Request.HttpMethod.GET, "http://localhost/connections", Collections.emptyMap(),
+            null, StandardCharsets.UTF_8, new RequestTemplate());
+        return FeignException.errorStatus("ACAPYClient", Response.builder().status(503).reason("Service Unavailable")
+            .headers(Collections.emptyMap()).request(request).build());
+    }
+
+    private void call() {
+        if (calls.incrementAndGet() <= failingCalls) {
+            throw serviceUnavailable();
+        }
+    }
+
+    private class FailingACAPYClient implements ACAPYClient {
+
+        @Override
+        public InvitationResultDTO createInvitation(String apiKey, String alias, InvitationRequestDTO invitationRequestDTO) {
+            call();
+            return new InvitationResultDTO();
+        }
+
+        @Override
+        public void sendCredentialOffer(String apiKey, CredentialOfferRequestDTO credentialOfferRequestDTO) {
+            call();
+        }
+
+        @Override
+        public ConnectionRecordDTO getConnectionRecordById(String apiKey, String connectionId) {
+            call();
+            return new ConnectionRecordDTO();
+        }
+
+        @Override
+        public ConnectionsRecordDTO getConnectionsRecordByAlias(String apiKey, String alias) {
+            call();
+            return new ConnectionsRecordDTO();
+        }
+
+        @Override
+        public IssueCredentialRecordDTO getIssueCredentialRecord(String apiKey, String cred_ex_id) {
+            call();
+            return new IssueCredentialRecordDTO();
+        }
+
+        @Override
+        public IssueCredentialRecordDTO deleteIssueCredentialRecord(String apiKey, String cred_ex_id) {
+            call();
+            return new IssueCredentialRecordDTO();
+        }
+
+        @Override
+        public void revokeCredential(String apiKey, RevocationRequestDTO revocationRequestDTO) {
+            call();
+        }
+    }
+}
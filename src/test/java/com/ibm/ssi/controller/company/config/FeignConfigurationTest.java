@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import feign.Client;
+import feign.Request;
+import feign.RequestTemplate;
+
+import org.junit.jupiter.api.Test;
+
+public class FeignConfigurationTest {
+
+    private static final Request.Options GET_OPTIONS = new Request.Options(1000, TimeUnit.MILLISECONDS, 2000,
+        TimeUnit.MILLISECONDS, true);
+
+    private static final Request.Options DEFAULT_OPTIONS = new Request.Options(10000, TimeUnit.MILLISECONDS, 60000,
+        TimeUnit.MILLISECONDS, true);
+
+    @Test
+    public void appliesTimeoutsOfHttpMethod() throws Exception {
+        AtomicReference<Request.Options> usedOptions = new AtomicReference<>();
+        Client client = createClient(usedOptions);
+
+        client.execute(request(Request.HttpMethod.GET), DEFAULT_OPTIONS);
+
+        assertThat(usedOptions.get()).isSameAs(GET_OPTIONS);
+    }
+
+    @Test
+    public void keepsTimeoutsOfClientForOtherHttpMethods() throws Exception {
+        AtomicReference<Request.Options> usedOptions = new AtomicReference<>();
+        Client client = createClient(usedOptions);
+
+        client.execute(request(Request.HttpMethod.PUT), DEFAULT_OPTIONS);
+
+        assertThat(usedOptions.get()).isSameAs(DEFAULT_OPTIONS);
+    }
+
+    private static Client createClient(AtomicReference<Request.Options> usedOptions) {
+        Map<Request.HttpMethod, Request.Options> options = new EnumMap<>(Request.HttpMethod.class);
+        options.put(Request.HttpMethod.GET, GET_OPTIONS);
+        return new FeignConfiguration.MethodTimeoutClient((request, requestOptions) -> {
+            usedOptions.set(requestOptions);
+            return null;
+        }, options);
+    }
+
+    private static Request request(Request.HttpMethod method) {
+        return Request.create(method, "http://localhost/connections", Collections.emptyMap(), null, StandardCharsets.UTF_8,
+            new RequestTemplate());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.ibm.ssi.controller.company.CompanyControllerApp;
+import com.ibm.ssi.controller.company.domain.Employee;
+import com.mongodb.bulk.BulkWriteError;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+
+/**
+ * Integration tests for the id lookups and the bulk writes of {@link EmployeeRepositoryImpl}, the bulk writes bypass
+ * the auditing callbacks.
+ */
+@WithMockUser(username = EmployeeRepositoryIT.AUDITOR)
+@SpringBootTest(classes = CompanyControllerApp.class)
+public class EmployeeRepositoryIT {
+
+    static final String AUDITOR = "importer";
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void initTest() {
+        employeeRepository.deleteAll();
+    }
+
+    private Employee createEntity(String id) {
+        Employee employee = new Employee();
+        employee.setEmployeeId(id);
+        employee.setFirstName("John");
+        employee.setLastName("Doe");
+        employee.setEmail(id + "@doe");
+        employee.setFirmName("FIRM");
+        employee.setFirmCity("city");
+        return employee;
+    }
+
+    @Test
+    public void findExistingIds() {
+        employeeRepository.saveAll(Arrays.asList(createEntity("ID_1"), createEntity("ID_2"), createEntity("ID_3")));
+
+        assertThat(employeeRepository.findExistingIds(Arrays.asList("ID_1", "ID_3", "ID_MISSING")))
+            .containsExactlyInAnyOrder("ID_1", "ID_3");
+    }
+
+    @Test
+    public void insertAllUnorderedStampsAuditingFields() {
+        List<BulkWriteError> errors = employeeRepository.insertAllUnordered(Arrays.asList(createEntity("ID_1"), createEntity("ID_2")));
+
+        assertThat(errors).isEmpty();
+        assertThat(employeeRepository.findAll()).hasSize(2).allSatisfy(employee -> {
+            assertThat(employee.getCreatedBy()).isEqualTo(AUDITOR);
+            assertThat(employee.getCreatedDate()).isNotNull();
+            assertThat(employee.getLastModifiedBy()).isEqualTo(AUDITOR);
+            assertThat(employee.getLastModifiedDate()).isEqualTo(employee.getCreatedDate());
+            assertThat(employee.getVersion()).isEqualTo(0L);
+        });
+    }
+
+    @Test
+    public void insertAllUnorderedReturnsErrorsPerEmployee() {
+        employeeRepository.save(createEntity("ID_2"));
+
+        List<BulkWriteError> errors = employeeRepository.insertAllUnordered(
+            Arrays.asList(createEntity("ID_1"), createEntity("ID_2"), createEntity("ID_3")));
+
+        // only the duplicate fails, the inserts after it are still applied
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getIndex()).isEqualTo(1);
+        assertThat(errors.get(0).getCode()).isEqualTo(DUPLICATE_KEY);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmployeeId).containsExactlyInAnyOrder("ID_1", "ID_2", "ID_3");
+    }
+
+    @Test
+    public void updateAllUnorderedReturnsErrorsPerEmployee() {
+        employeeRepository.save(createEntity("ID_1"));
+        // a stored version that cannot be incremented makes the second update fail
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Employee.class))
+            .insertOne(new Document("_id", "ID_2").append("version", "not a number"));
+
+        Employee updatedEmployee = createEntity("ID_1");
+        updatedEmployee.setFirmCity("updated city");
+        updatedEmployee.setContentHash("hash");
+        List<BulkWriteError> errors = employeeRepository.updateAllUnordered(Arrays.asList(updatedEmployee, createEntity("ID_2")));
+
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0).getIndex()).isEqualTo(1);
+        assertThat(errors.get(0).getMessage()).isNotEmpty();
+        Employee storedEmployee = employeeRepository.findById("ID_1").get();
+        assertThat(storedEmployee.getFirmCity()).isEqualTo("updated city");
+        assertThat(storedEmployee.getContentHash()).isEqualTo("hash");
+        assertThat(storedEmployee.getLastModifiedBy()).isEqualTo(AUDITOR);
+        assertThat(storedEmployee.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    public void updateIfExistsDropsContentHashOfImport() {
+        Employee employee = createEntity("ID_1");
+        employee.setContentHash("hash");
+        employeeRepository.save(employee);
+
+        Employee updatedEmployee = createEntity("ID_1");
+        updatedEmployee.setFirmCity("updated city");
+        Employee storedEmployee = employeeRepository.updateIfExists(updatedEmployee);
+
+        // the next import of the unchanged CSV row must not be skipped as unchanged
+        assertThat(storedEmployee.getFirmCity()).isEqualTo("updated city");
+        assertThat(storedEmployee.getContentHash()).isNull();
+        assertThat(employeeRepository.findById("ID_1").get().getContentHash()).isNull();
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.ibm.ssi.controller.company.service.exceptions.InvitationUndeliverableException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+public class InvitationMailSenderTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private InvitationMailSender invitationMailSender;
+
+    @BeforeEach
+    public void init() {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost(ServerSetupTest.SMTP.getBindAddress());
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        invitationMailSender = new InvitationMailSender();
+        invitationMailSender.mailSender = mailSender;
+        invitationMailSender.connections = 2;
+        invitationMailSender.messagesPerConnection = 10;
+        invitationMailSender.preparationParallelism = 2;
+        invitationMailSender.queueCapacity = 100;
+        invitationMailSender.maxAttempts = 3;
+        invitationMailSender.initialBackoffMillis = 10;
+        invitationMailSender.maxBackoffMillis = 100;
+        invitationMailSender.start();
+    }
+
+    @AfterEach
+    public void shutdown() {
+        invitationMailSender.stop();
+    }
+
+    @Test
+    public void sendsQueuedMessages() throws Exception {
+        RecordingListener listener = new RecordingListener(3);
+
+        for (int i = 0; i < 3; i++) {
+            String recipient = "employee" + i + "@localhost";
+            assertThat(invitationMailSender.submit("delivery" + i, () -> createMessage(recipient), listener)).isTrue();
+        }
+
+        assertThat(listener.await()).isTrue();
+        assertThat(listener.outcomes).containsExactlyInAnyOrder("sent delivery0 1", "sent delivery1 1", "sent delivery2 1");
+        assertThat(greenMail.getReceivedMessages()).hasSize(3);
+    }
+
+    @Test
+    public void retriesFailedMessages() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        invitationMailSender.submit("delivery", () -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("agent not reachable");
+            }
+            return createMessage("employee@localhost");
+        }, listener);
+
+        assertThat(listener.await()).isTrue();
+        assertThat(listener.retries).containsExactly("retry delivery 1 agent not reachable");
+        assertThat(listener.outcomes).containsExactly("sent delivery 2");
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+    }
+
+    @Test
+    public void createsMessagesOffTheSenderThreads() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+        List<String> threads = new CopyOnWriteArrayList<>();
+
+        invitationMailSender.submit("delivery", () -> {
+            threads.add(Thread.currentThread().getName());
+            return createMessage("employee@localhost");
+        }, listener);
+
+        assertThat(listener.await()).isTrue();
+        assertThat(threads).hasSize(1).allMatch(thread -> thread.startsWith("invitation-mail-prepare-"));
+    }
+
+    @Test
+    public void sendsCreatedMessageAgainOnRetry() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+        AtomicInteger calls = new AtomicInteger();
+        JavaMailSenderImpl mailSender = (JavaMailSenderImpl) invitationMailSender.mailSender;
+        AtomicInteger connections = new AtomicInteger();
+        invitationMailSender.mailSender = new JavaMailSenderImpl() {
+
+            @Override
+            public void send(MimeMessage... mimeMessages) {
+                if (connections.getAndIncrement() == 0) {
+                    throw new MailSendException(Collections.singletonMap(mimeMessages[0],
+                        new MessagingException("connection refused")));
+                }
+                mailSender.send(mimeMessages);
+            }
+        };
+
+        invitationMailSender.submit("delivery", () -> {
+            calls.incrementAndGet();
+            return createMessage("employee@localhost");
+        }, listener);
+
+        assertThat(listener.await()).isTrue();
+        assertThat(listener.retries).containsExactly("retry delivery 1 connection refused");
+        assertThat(listener.outcomes).containsExactly("sent delivery 2");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    public void rejectsMessagesBeyondCapacity() throws Exception {
+        invitationMailSender.stop();
+        invitationMailSender.queueCapacity = 1;
+        invitationMailSender.start();
+        RecordingListener listener = new RecordingListener(2);
+        CountDownLatch created = new CountDownLatch(1);
+
+        assertThat(invitationMailSender.submit("delivery0", () -> {
+            created.await();
+            return createMessage("employee0@localhost");
+        }, listener)).isTrue();
+        assertThat(invitationMailSender.submit("delivery1", () -> createMessage("employee1@localhost"), listener)).isFalse();
+        created.countDown();
+
+        // the capacity is released once the message is sent
+        while (!invitationMailSender.submit("delivery1", () -> createMessage("employee1@localhost"), listener)) {
+            Thread.sleep(10);
+        }
+        assertThat(listener.await()).isTrue();
+        assertThat(listener.outcomes).containsExactly("sent delivery0 1", "sent delivery1 1");
+    }
+
+    @Test
+    public void doesNotRetryUndeliverableMessages() throws Exception {
+        RecordingListener listener = new RecordingListener(1);
+
+        invitationMailSender.submit("delivery", () -> {
+            throw new InvitationUndeliverableException("no address");
+        }, listener);
+
+        assertThat(listener.await()).isTrue();
+        assertThat(listener.retries).isEmpty();
+        assertThat(listener.outcomes).containsExactly("failed delivery 1 no address");
+    }
+
+    @Test
+    public void backsOffExponentiallyWithJitter() {
+        assertThat(invitationMailSender.backoffMillis(1)).isBetween(5L, 10L);
+        assertThat(invitationMailSender.backoffMillis(3)).isBetween(20L, 40L);
+        assertThat(invitationMailSender.backoffMillis(10)).isBetween(50L, 100L);
+    }
+
+    private static MimeMessage createMessage(String recipient) throws MessagingException {
+        MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+        message.setFrom(new InternetAddress("company@localhost"));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(recipient));
+        message.setSubject("Invitation");
+        message.setText("invitation");
+        return message;
+    }
+
+    private static final class RecordingListener implements InvitationMailSender.DeliveryListener {
+
+        private final CountDownLatch done;
+
+        private final List<String> outcomes = new CopyOnWriteArrayList<>();
+
+        private final List<String> retries = new CopyOnWriteArrayList<>();
+
+        private RecordingListener(int messages) {
+            this.done = new CountDownLatch(messages);
+        }
+
+        private boolean await() throws InterruptedException {
+            return done.await(10, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public void onSent(String deliveryId, int attempts) {
+            outcomes.add("sent " + deliveryId + " " + attempts);
+            done.countDown();
+        }
+
+        @Override
+        public void onRetry(String deliveryId, int attempts, String error) {
+            retries.add("retry " + deliveryId + " " + attempts + " " + error);
+        }
+
+        @Override
+        public void onFailed(String deliveryId, int attempts, String error) {
+            outcomes.add("failed " + deliveryId + " " + attempts + " " + error);
+            done.countDown();
+        }
+    }
+}
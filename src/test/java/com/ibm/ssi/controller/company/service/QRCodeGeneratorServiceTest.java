@@ -0,0 +1,78 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.w3c.dom.Element;
+
+public class QRCodeGeneratorServiceTest {
+
+    private static final String TEXT = "http://localhost/invitation?c_i=test";
+
+    private static final Pattern RUN = Pattern.compile("M(\\d+) (\\d+)h(\\d+)v1h-\\3z");
+
+    private QRCodeGeneratorService qrCodeGeneratorService;
+
+    @BeforeEach
+    public void init() {
+        qrCodeGeneratorService = new QRCodeGeneratorService();
+        ReflectionTestUtils.setField(qrCodeGeneratorService, "size", 300);
+    }
+
+    @Test
+    public void rendersSvgWithOneUnitPerModule() throws Exception {
+        BitMatrix matrix = new QRCodeWriter().encode(TEXT, BarcodeFormat.QR_CODE, 0, 0);
+
+        String svg = qrCodeGeneratorService.encodeQRCodeSvg(TEXT);
+
+        Element root = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+            .parse(new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8))).getDocumentElement();
+        assertThat(root.getTagName()).isEqualTo("svg");
+        assertThat(root.getAttribute("viewBox")).isEqualTo("0 0 " + matrix.getWidth() + " " + matrix.getHeight());
+        assertThat(root.getAttribute("width")).isEqualTo("300");
+        assertThat(root.getAttribute("height")).isEqualTo("300");
+
+        // the runs of the path cover exactly the dark modules
+        String path = ((Element) root.getElementsByTagName("path").item(0)).getAttribute("d");
+        BitMatrix rendered = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+        Matcher run = RUN.matcher(path);
+        int end = 0;
+        while (run.find()) {
+            assertThat(run.start()).isEqualTo(end);
+            end = run.end();
+            rendered.setRegion(Integer.parseInt(run.group(1)), Integer.parseInt(run.group(2)), Integer.parseInt(run.group(3)), 1);
+        }
+        assertThat(end).isEqualTo(path.length());
+        assertThat(rendered).isEqualTo(matrix);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.ibm.ssi.controller.company.service.exceptions.QRCodeGenerationException;
+import com.ibm.ssi.controller.company.service.exceptions.RenderingCapacityExceededException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+public class RenderingServiceTest {
+
+    private ThreadPoolExecutor executor;
+
+    private RenderingService renderingService;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void init() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(2),
+            new CustomizableThreadFactory("rendering-"));
+        renderingService = new RenderingService();
+        renderingService.renderingExecutor = executor;
+        renderingService.retryAfterSeconds = 5;
+        renderingService.queueCapacity = 2;
+        renderingService.reservedCapacity = 1;
+        renderingService.initReservations();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void shutdown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void returnsResultOfReservedTask() throws Exception {
+        try (RenderingService.Reservation reservation = renderingService.reserve()) {
+            assertThat(renderingService.render(reservation, () -> "rendered")).isEqualTo("rendered");
+        }
+    }
+
+    @Test
+    public void rethrowsExceptionOfReservedTask() throws Exception {
+        try (RenderingService.Reservation reservation = renderingService.reserve()) {
+            assertThatThrownBy(() -> renderingService.render(reservation, () -> {
+                throw new QRCodeGenerationException(new IllegalArgumentException());
+            })).isInstanceOf(QRCodeGenerationException.class);
+        }
+    }
+
+    @Test
+    public void rejectsReservationIfAllAreReserved() throws Exception {
+        try (RenderingService.Reservation reservation = renderingService.reserve()) {
+            assertThatThrownBy(() -> renderingService.reserve())
+                .isInstanceOf(RenderingCapacityExceededException.class)
+                .extracting("retryAfterSeconds").isEqualTo(5);
+        }
+
+        renderingService.reserve().close();
+    }
+
+    @Test
+    public void rejectsRenderingWithClosedReservation() throws Exception {
+        RenderingService.Reservation reservation = renderingService.reserve();
+        reservation.close();
+
+        assertThatThrownBy(() -> renderingService.render(reservation, () -> "rendered"))
+            .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void rendersAsyncOnCallingThreadIfBulkShareIsUsedUp() throws Exception {
+        blockExecutor();
+        CompletableFuture<Boolean> queued = renderingService.renderAsync(() -> isRenderingThread());
+
+        Thread caller = Thread.currentThread();
+        assertThat(renderingService.renderAsync(() -> Thread.currentThread() == caller).get()).isTrue();
+
+        release.countDown();
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void rendersReservedTaskOnExecutorIfBulkShareIsUsedUp() throws Exception {
+        blockExecutor();
+        CompletableFuture<Boolean> queued = renderingService.renderAsync(() -> isRenderingThread());
+        assertThat(executor.getQueue()).hasSize(1);
+
+        try (RenderingService.Reservation reservation = renderingService.reserve()) {
+            CompletableFuture<Boolean> reserved = CompletableFuture.supplyAsync(
+                () -> renderingService.render(reservation, () -> isRenderingThread()));
+            while (executor.getQueue().size() < 2) {
+                Thread.sleep(10);
+            }
+
+            release.countDown();
+            assertThat(reserved.get(1, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void rejectsReservedCapacityThatLeavesNoShareForBulkJobs() {
+        renderingService.reservedCapacity = 2;
+
+        assertThatThrownBy(() -> renderingService.initReservations()).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void blockExecutor() {
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static boolean isRenderingThread() {
+        return Thread.currentThread().getName().startsWith("rendering-");
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.ibm.ssi.controller.company.client.ACAPYClient;
+import com.ibm.ssi.controller.company.client.AgentUnavailableException;
+import com.ibm.ssi.controller.company.client.AsyncACAPYClient;
+import com.ibm.ssi.controller.company.client.model.InvitationResultDTO;
+import com.ibm.ssi.controller.company.domain.Employee;
+import com.ibm.ssi.controller.company.repository.EmployeeRepository;
+import com.ibm.ssi.controller.company.service.QRCodeGeneratorService;
+import com.ibm.ssi.controller.company.service.RenderingService;
+import com.ibm.ssi.controller.company.service.dto.EmployeeInvitationResultDTO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class EmployeeServiceImplTest {
+
+    private final Map<String, CompletableFuture<InvitationResultDTO>> invitations = new ConcurrentHashMap<>();
+
+    private EmployeeServiceImpl employeeService;
+
+    @BeforeEach
+    public void init() {
+        employeeService = new EmployeeServiceImpl();
+        employeeService.employeeRepository = mock(EmployeeRepository.class);
+        employeeService.asyncAcapyClient = mock(AsyncACAPYClient.class);
+        employeeService.bulkInvitationParallelism = 2;
+        employeeService.initBulkInvitationPermits();
+
+        when(employeeService.employeeRepository.findExistingIds(any()))
+            .thenReturn(new HashSet<>(Arrays.asList("ID_1", "ID_2", "ID_3", "ID_4")));
+        when(employeeService.asyncAcapyClient.createInvitation(any(), anyString(), any()))
+            .thenAnswer(call -> invitation(call.getArgument(1)));
+    }
+
+    @Test
+    public void returnsResultsInOrderOfIds() {
+        complete("ID_2");
+        invitation("ID_1").completeExceptionally(new AgentUnavailableException("agent down", 1, null));
+
+        List<EmployeeInvitationResultDTO> results = employeeService.createEmployeeInvitations(
+            Arrays.asList("ID_2", "ID_MISSING", "ID_1", "ID_2"));
+
+        assertThat(results).extracting(EmployeeInvitationResultDTO::getEmployeeId).containsExactly("ID_2", "ID_MISSING", "ID_1");
+        assertThat(results.get(0).getUrl()).isEqualTo("http://agent?c_i=ID_2");
+        assertThat(results.get(0).getError()).isNull();
+        assertThat(results.get(1).getUrl()).isNull();
+        assertThat(results.get(1).getError()).isNotNull();
+        assertThat(results.get(2).getUrl()).isNull();
+        assertThat(results.get(2).getError()).isEqualTo("agent down");
+        verify(employeeService.asyncAcapyClient, times(2)).createInvitation(any(), anyString(), any());
+    }
+
+    @Test
+    public void limitsCallsInFlightAcrossRequests() throws Exception {
+        CompletableFuture<List<EmployeeInvitationResultDTO>> first = CompletableFuture
+            .supplyAsync(() -> employeeService.createEmployeeInvitations(Arrays.asList("ID_1", "ID_2")));
+        verify(employeeService.asyncAcapyClient, timeout(1000).times(2)).createInvitation(any(), anyString(), any());
+
+        CompletableFuture<List<EmployeeInvitationResultDTO>> second = CompletableFuture
+            .supplyAsync(() -> employeeService.createEmployeeInvitations(Arrays.asList("ID_3", "ID_4")));
+        Thread.sleep(200);
+        verify(employeeService.asyncAcapyClient, times(2)).createInvitation(any(), anyString(), any());
+
+        complete("ID_1");
+        verify(employeeService.asyncAcapyClient, timeout(1000)).createInvitation(any(), eq("ID_3"), any());
+        Thread.sleep(200);
+        verify(employeeService.asyncAcapyClient, times(3)).createInvitation(any(), anyString(), any());
+
+        complete("ID_2");
+        complete("ID_3");
+        verify(employeeService.asyncAcapyClient, timeout(1000)).createInvitation(any(), eq("ID_4"), any());
+        complete("ID_4");
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).extracting(EmployeeInvitationResultDTO::getUrl)
+            .containsExactly("http://agent?c_i=ID_1", "http://agent?c_i=ID_2");
+        assertThat(second.get(1, TimeUnit.SECONDS)).extracting(EmployeeInvitationResultDTO::getUrl)
+            .containsExactly("http://agent?c_i=ID_3", "http://agent?c_i=ID_4");
+    }
+
+    @Test
+    public void skipsAgentCallsInFlightIfExportFails() throws Exception {
+        Queue<Runnable> exportTasks = new ConcurrentLinkedQueue<>();
+        employeeService.invitationExportExecutor = exportTasks::add;
+        employeeService.invitationExportPipelineDepth = 3;
+        employeeService.acapyClient = mock(ACAPYClient.class);
+        employeeService.qrCodeGeneratorService = mock(QRCodeGeneratorService.class);
+        employeeService.renderingService = mock(RenderingService.class);
+        when(employeeService.employeeRepository.findById(anyString())).thenReturn(Optional.of(new Employee()));
+        when(employeeService.acapyClient.createInvitation(any(), anyString(), any())).thenAnswer(call -> {
+            InvitationResultDTO invitation = new InvitationResultDTO();
+            invitation.setInvitationUrl("http://agent?c_i=" + call.getArgument(1));
+            return invitation;
+        });
+        when(employeeService.qrCodeGeneratorService.encodeQRCodePng(anyString())).thenReturn(new byte[] { 1 });
+        when(employeeService.renderingService.renderAsync(any())).thenAnswer(call -> {
+            RenderingService.RenderingTask<?, ?> task = call.getArgument(0);
+            return CompletableFuture.completedFuture(task.render());
+        });
+        OutputStream disconnectedClient = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("client went away");
+            }
+        };
+
+        CompletableFuture<Void> export = CompletableFuture.runAsync(() -> {
+            try {
+                employeeService.createEmployeeInvitationsAsQRCodeZip(Arrays.asList("ID_1", "ID_2", "ID_3"), disconnectedClient);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        while (exportTasks.size() < 3) {
+            Thread.sleep(10);
+        }
+
+        // the first invitation is written to the disconnected client, the two others are still queued
+        exportTasks.poll().run();
+        assertThatThrownBy(() -> export.get(1, TimeUnit.SECONDS))
+            .isInstanceOf(ExecutionException.class).hasCauseInstanceOf(UncheckedIOException.class);
+        exportTasks.forEach(Runnable::run);
+
+        verify(employeeService.acapyClient, times(1)).createInvitation(any(), anyString(), any());
+    }
+
+    private CompletableFuture<InvitationResultDTO> invitation(String employeeId) {
+        return invitations.computeIfAbsent(employeeId, id -> new CompletableFuture<>());
+    }
+
+    private void complete(String employeeId) {
+        InvitationResultDTO invitation = new InvitationResultDTO();
+        invitation.setInvitationUrl("http://agent?c_i=" + employeeId);
+        invitation(employeeId).complete(invitation);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class CompiledTemplateTest {
+
+    @Test
+    public void replacesPlaceholders() {
+        Map<String, String> values = new HashMap<>();
+        values.put("EMPLOYEE_FIRSTNAME", "John");
+        values.put("EMPLOYEE_ID", "ID_1");
+
+        String result = CompiledTemplate.compile("Hello {{EMPLOYEE_FIRSTNAME}} ({{EMPLOYEE_ID}}), {{EMPLOYEE_FIRSTNAME}}!")
+            .render(values);
+
+        assertThat(result).isEqualTo("Hello John (ID_1), John!");
+    }
+
+    @Test
+    public void keepsUnknownAndUnterminatedPlaceholders() {
+        String result = CompiledTemplate.compile("{{UNKNOWN}} and {{EMPLOYEE_ID").render(new HashMap<>());
+
+        assertThat(result).isEqualTo("{{UNKNOWN}} and {{EMPLOYEE_ID");
+    }
+}
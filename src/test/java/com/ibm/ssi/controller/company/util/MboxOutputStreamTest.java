@@ -0,0 +1,69 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+public class MboxOutputStreamTest {
+
+    private static final Instant DATE = Instant.parse("2021-03-04T05:06:07Z");
+
+    @Test
+    public void separatesMessages() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        MboxOutputStream mbox = new MboxOutputStream(os);
+
+        mbox.nextMessage("MAILER-DAEMON", DATE);
+        mbox.write("Subject: first\r\n\r\nbody".getBytes(StandardCharsets.US_ASCII));
+        mbox.nextMessage("MAILER-DAEMON", DATE);
+        mbox.write("Subject: second\r\n".getBytes(StandardCharsets.US_ASCII));
+        mbox.finish();
+
+        assertThat(new String(os.toByteArray(), StandardCharsets.US_ASCII)).isEqualTo(
+            "From MAILER-DAEMON Thu Mar  4 05:06:07 2021\n"
+                + "Subject: first\r\n\r\nbody\n\n"
+                + "From MAILER-DAEMON Thu Mar  4 05:06:07 2021\n"
+                + "Subject: second\r\n\n");
+    }
+
+    @Test
+    public void quotesFromLines() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        MboxOutputStream mbox = new MboxOutputStream(os);
+
+        mbox.nextMessage("MAILER-DAEMON", DATE);
+        byte[] content = "From here\n>From there\nnot From\n>>From x\n>Fro\nFrom".getBytes(StandardCharsets.US_ASCII);
+        // byte by byte and in one chunk must give the same result
+        for (int i = 0; i < 10; i++) {
+            mbox.write(content[i]);
+        }
+        mbox.write(content, 10, content.length - 10);
+        mbox.finish();
+
+        assertThat(new String(os.toByteArray(), StandardCharsets.US_ASCII)).isEqualTo(
+            "From MAILER-DAEMON Thu Mar  4 05:06:07 2021\n"
+                + ">From here\n>>From there\nnot From\n>>>From x\n>Fro\nFrom\n\n");
+    }
+}
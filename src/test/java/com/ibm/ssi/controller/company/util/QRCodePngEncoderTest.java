@@ -0,0 +1,48 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+
+import javax.imageio.ImageIO;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+
+import org.junit.jupiter.api.Test;
+
+public class QRCodePngEncoderTest {
+
+    @Test
+    public void writesMatrixAsReadablePng() throws Exception {
+        BitMatrix matrix = new QRCodeWriter().encode("http://localhost/invitation?c_i=test", BarcodeFormat.QR_CODE, 300, 300);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(QRCodePngEncoder.toPng(matrix)));
+
+        assertThat(image.getWidth()).isEqualTo(300);
+        assertThat(image.getHeight()).isEqualTo(300);
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                assertThat((image.getRGB(x, y) & 0xffffff) == 0).isEqualTo(matrix.get(x, y));
+            }
+        }
+    }
+}
@@ -21,28 +21,61 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.imageio.ImageIO;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
 
 import com.ibm.ssi.controller.company.CompanyControllerApp;
+import com.ibm.ssi.controller.company.client.ACAPYClient;
+import com.ibm.ssi.controller.company.client.model.InvitationResultDTO;
 import com.ibm.ssi.controller.company.domain.Address;
 import com.ibm.ssi.controller.company.domain.Employee;
+import com.ibm.ssi.controller.company.domain.EmployeeImportJob;
+import com.ibm.ssi.controller.company.repository.EmployeeImportJobRepository;
 import com.ibm.ssi.controller.company.repository.EmployeeRepository;
 import com.ibm.ssi.controller.company.security.AuthoritiesConstants;
 import org.springframework.boot.test.context.SpringBootTest;
 import com.ibm.ssi.controller.company.service.dto.AddressDTO;
 import com.ibm.ssi.controller.company.service.dto.EmployeeDTO;
+import com.ibm.ssi.controller.company.service.dto.EmployeeSelectionDTO;
+import com.ibm.ssi.controller.company.service.impl.EmployeeImportServiceImpl;
 import com.ibm.ssi.controller.company.service.mapper.AddressMapper;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.util.StreamUtils;
 
 /**
  * Integration tests for the {@link EmployeeController} REST controller.
@@ -64,18 +97,30 @@ public class EmployeeControllerIT {
     private static final String DEFAULT_FIRMSTREET = "street";
     private static final String DEFAULT_FIRMPOSTALCODE = "plz";
     private static final String DEFAULT_FIRMCITY = "city";
+    private static final String UPDATED_FIRMCITY = "updatedCity";
     private static final AddressDTO DEFAULT_ADDRESS = new AddressDTO("companyUnit", "street", "plz", "city");
     private static final Address ANOTHER_ADDRESS = new Address("companyUnit", "street", "plz", "city");
+    private static final String INVITATION_URL = "http://agent/?c_i="
+        + Base64.getEncoder().encodeToString("{\"@type\": \"connections/1.0/invitation\"}".getBytes(StandardCharsets.UTF_8));
 
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EmployeeImportJobRepository employeeImportJobRepository;
+
+    @Autowired
+    private EmployeeImportServiceImpl employeeImportService;
+
     @Autowired
     private MockMvc restEmployeeMockMvc;
 
     @Autowired
     private AddressMapper addressMapper;
 
+    @MockBean
+    private ACAPYClient acapyClient;
+
     private Employee employee;
 
     public Employee createEntity() {
@@ -96,6 +141,11 @@ public class EmployeeControllerIT {
     public void initTest() {
         employeeRepository.deleteAll();
         employee = this.createEntity();
+
+        InvitationResultDTO invitation = new InvitationResultDTO();
+        invitation.setConnectionId("connection");
+        invitation.setInvitationUrl(INVITATION_URL);
+        when(acapyClient.createInvitation(any(), any(), any())).thenReturn(invitation);
     }
 
     @Test
@@ -133,6 +183,248 @@ public class EmployeeControllerIT {
         });
     }
 
+    @Test
+    public void createEmployeesInBulk() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee);
+        int databaseSizeBeforeCreate = employeeRepository.findAll().size();
+
+        // Create one new and one already existing employee
+        EmployeeDTO newEmployeeDTO = new EmployeeDTO(ANOTHER_ID, DEFAULT_FIRSTNAME, DEFAULT_LASTNAME, DEFAULT_EMAIL,
+            DEFAULT_FIRMNAME, DEFAULT_FIRMSUBJECT, DEFAULT_FIRMSTREET, DEFAULT_FIRMPOSTALCODE, DEFAULT_FIRMCITY);
+        EmployeeDTO existingEmployeeDTO = new EmployeeDTO(employee);
+
+        restEmployeeMockMvc.perform(post("/api/employee/bulk").contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(new EmployeeDTO[] { newEmployeeDTO, existingEmployeeDTO })))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.received").value(2))
+            .andExpect(jsonPath("$.inserted").value(1))
+            .andExpect(jsonPath("$.failures[0].index").value(1))
+            .andExpect(jsonPath("$.failures[0].employeeId").value(DEFAULT_ID));
+
+        // Validate the employees in the database
+        assertPersistedEmployees(employees -> assertThat(employees).hasSize(databaseSizeBeforeCreate + 1));
+    }
+
+    @Test
+    public void createEmployeesByCsv() throws Exception {
+        int databaseSizeBeforeCreate = employeeRepository.findAll().size();
+
+        // One valid row and one row without a first name
+        String csv = "Name;E-Mail;Subject;Unit;Firm;Street;Postal code;City\n"
+            + DEFAULT_LASTNAME + ", " + DEFAULT_FIRSTNAME + ";" + DEFAULT_EMAIL + ";" + DEFAULT_FIRMSUBJECT + ";;"
+            + DEFAULT_FIRMNAME + ";" + DEFAULT_FIRMSTREET + ";" + DEFAULT_FIRMPOSTALCODE + ";" + DEFAULT_FIRMCITY + "\n"
+            + DEFAULT_LASTNAME + ";" + DEFAULT_EMAIL + ";" + DEFAULT_FIRMSUBJECT + ";;"
+            + DEFAULT_FIRMNAME + ";" + DEFAULT_FIRMSTREET + ";" + DEFAULT_FIRMPOSTALCODE + ";" + DEFAULT_FIRMCITY + "\n";
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        restEmployeeMockMvc.perform(multipart("/api/employee/csv").file(file))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.parsed").value(2))
+            .andExpect(jsonPath("$.inserted").value(1))
+            .andExpect(jsonPath("$.skipped").value(0))
+            .andExpect(jsonPath("$.failed").value(1));
+
+        // Validate the employees in the database
+        assertPersistedEmployees(employees -> {
+            assertThat(employees).hasSize(databaseSizeBeforeCreate + 1);
+            assertThat(employees.get(employees.size() - 1).getFirstName()).isEqualTo(DEFAULT_FIRSTNAME);
+        });
+    }
+
+    @Test
+    public void createEmployeesByCsvIncrementally() throws Exception {
+        int databaseSizeBeforeCreate = employeeRepository.findAll().size();
+
+        String header = "Name;E-Mail;Subject;Unit;Firm;Street;Postal code;City\n";
+        // an email no other test uses, as rows are matched by email
+        String row = DEFAULT_LASTNAME + ", " + DEFAULT_FIRSTNAME + ";incremental@import;" + DEFAULT_FIRMSUBJECT + ";;"
+            + DEFAULT_FIRMNAME + ";" + DEFAULT_FIRMSTREET + ";" + DEFAULT_FIRMPOSTALCODE + ";";
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv",
+            (header + row + DEFAULT_FIRMCITY + "\n").getBytes(StandardCharsets.UTF_8));
+        MockMultipartFile changedFile = new MockMultipartFile("file", "employees.csv", "text/csv",
+            (header + row + UPDATED_FIRMCITY + "\n").getBytes(StandardCharsets.UTF_8));
+
+        restEmployeeMockMvc.perform(multipart("/api/employee/csv").file(file).param("incremental", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inserted").value(1));
+
+        // The same row again is not written
+        restEmployeeMockMvc.perform(multipart("/api/employee/csv").file(file).param("incremental", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inserted").value(0))
+            .andExpect(jsonPath("$.updated").value(0))
+            .andExpect(jsonPath("$.skipped").value(1));
+
+        // A changed row updates the employee with the same email
+        restEmployeeMockMvc.perform(multipart("/api/employee/csv").file(changedFile).param("incremental", "true"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inserted").value(0))
+            .andExpect(jsonPath("$.updated").value(1));
+
+        assertPersistedEmployees(employees -> {
+            assertThat(employees).hasSize(databaseSizeBeforeCreate + 1);
+            assertThat(employees).filteredOn(employee -> "incremental@import".equals(employee.getEmail()))
+                .extracting(Employee::getFirmCity).containsExactly(UPDATED_FIRMCITY);
+        });
+    }
+
+    @Test
+    public void createEmployeesByCsvJob() throws Exception {
+        String csv = "Name;E-Mail;Subject;Unit;Firm;Street;Postal code;City\n"
+            + DEFAULT_LASTNAME + ", " + DEFAULT_FIRSTNAME + ";" + DEFAULT_EMAIL + ";" + DEFAULT_FIRMSUBJECT + ";;"
+            + DEFAULT_FIRMNAME + ";" + DEFAULT_FIRMSTREET + ";" + DEFAULT_FIRMPOSTALCODE + ";" + DEFAULT_FIRMCITY + "\n";
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        String location = restEmployeeMockMvc.perform(multipart("/api/employee/csv/jobs").file(file))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.jobId").isNotEmpty())
+            .andReturn().getResponse().getHeader("Location");
+
+        // Wait for the background import to finish
+        String jobId = location.substring(location.lastIndexOf('/') + 1);
+        for (int i = 0; i < 100 && isImportJobPending(jobId); i++) {
+            Thread.sleep(100);
+        }
+
+        restEmployeeMockMvc.perform(get(location))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.status").value("COMPLETED"))
+            .andExpect(jsonPath("$.parsed").value(1))
+            .andExpect(jsonPath("$.inserted").value(1));
+
+        // the background import is audited as the uploader
+        assertThat(employeeRepository.findAll()).hasSize(1).allSatisfy(employee -> {
+            assertThat(employee.getCreatedBy()).isEqualTo("user");
+            assertThat(employee.getLastModifiedBy()).isEqualTo("user");
+        });
+    }
+
+    @Test
+    public void failInterruptedCsvJobsAtStartup() throws Exception {
+        EmployeeImportJob runningJob = new EmployeeImportJob();
+        runningJob.setStatus(EmployeeImportJob.Status.RUNNING);
+        runningJob = employeeImportJobRepository.save(runningJob);
+        EmployeeImportJob completedJob = new EmployeeImportJob();
+        completedJob.setStatus(EmployeeImportJob.Status.COMPLETED);
+        completedJob = employeeImportJobRepository.save(completedJob);
+
+        employeeImportService.failInterruptedImportJobs();
+
+        EmployeeImportJob interruptedJob = employeeImportJobRepository.findById(runningJob.getId()).get();
+        assertThat(interruptedJob.getStatus()).isEqualTo(EmployeeImportJob.Status.FAILED);
+        assertThat(interruptedJob.getError()).isNotEmpty();
+        assertThat(interruptedJob.getFinishedDate()).isNotNull();
+        assertThat(employeeImportJobRepository.findById(completedJob.getId()).get().getStatus())
+            .isEqualTo(EmployeeImportJob.Status.COMPLETED);
+    }
+
+    @Test
+    public void createInvitationsByQR() throws Exception {
+        // Initialize the database with two ids that map to the same file name
+        employee.setEmployeeId("ID 3");
+        employeeRepository.save(employee);
+        Employee anotherEmployee = this.createEntity();
+        anotherEmployee.setEmployeeId("ID_3");
+        employeeRepository.save(anotherEmployee);
+
+        EmployeeSelectionDTO selection = new EmployeeSelectionDTO();
+        selection.setEmployeeIds(Arrays.asList("ID 3", "ID_3", "ID_MISSING"));
+        Map<String, byte[]> entries = unzip(performAsync(post("/api/employee/invitations/qr")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(selection)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/zip"))
+            .andReturn().getResponse().getContentAsByteArray());
+
+        assertThat(entries).containsOnlyKeys("ID_3.png", "ID_3-2.png", "failures.txt");
+        assertThat(ImageIO.read(new ByteArrayInputStream(entries.get("ID_3.png")))).isNotNull();
+        assertThat(new String(entries.get("failures.txt"), StandardCharsets.UTF_8)).startsWith("ID_MISSING: ");
+    }
+
+    @Test
+    public void createInvitationsByQRWithoutSelection() throws Exception {
+        employeeRepository.save(employee);
+
+        restEmployeeMockMvc.perform(post("/api/employee/invitations/qr")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{}"))
+            .andExpect(status().isBadRequest());
+
+        verify(acapyClient, never()).createInvitation(any(), any(), any());
+    }
+
+    @Test
+    public void createInvitationsByEMailAsZip() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee);
+
+        EmployeeSelectionDTO selection = new EmployeeSelectionDTO();
+        selection.setEmployeeIds(Arrays.asList(DEFAULT_ID, "ID_MISSING"));
+        Map<String, byte[]> entries = unzip(performAsync(post("/api/employee/invitations/e-mail")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(selection)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/zip"))
+            .andReturn().getResponse().getContentAsByteArray());
+
+        assertThat(entries).containsOnlyKeys(DEFAULT_ID + "-invitation.eml", "failures.txt");
+        MimeMessage message = parseMessage(entries.get(DEFAULT_ID + "-invitation.eml"));
+        assertThat(message.getRecipients(Message.RecipientType.TO)).extracting(javax.mail.Address::toString).containsExactly(DEFAULT_EMAIL);
+        assertThat(new String(entries.get("failures.txt"), StandardCharsets.UTF_8)).startsWith("ID_MISSING: ");
+    }
+
+    @Test
+    public void createInvitationsByEMailAsMbox() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee);
+
+        EmployeeSelectionDTO selection = new EmployeeSelectionDTO();
+        selection.setEmployeeIds(Arrays.asList(DEFAULT_ID, "ID_MISSING"));
+        String mbox = performAsync(post("/api/employee/invitations/e-mail")
+            .param("format", "MBOX")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(selection)))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/mbox"))
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(mbox).startsWith("From MAILER-DAEMON ");
+        String[] messages = mbox.substring(mbox.indexOf('\n') + 1).split("\n\nFrom MAILER-DAEMON [^\n]*\n");
+        assertThat(messages).hasSize(2);
+
+        MimeMessage invitation = parseMessage(messages[0].getBytes(StandardCharsets.UTF_8));
+        assertThat(invitation.getRecipients(Message.RecipientType.TO)).extracting(javax.mail.Address::toString).containsExactly(DEFAULT_EMAIL);
+
+        MimeMessage failures = parseMessage(messages[1].getBytes(StandardCharsets.UTF_8));
+        assertThat(failures.getSubject()).isEqualTo("Failed invitations");
+        assertThat((String) failures.getContent()).startsWith("ID_MISSING: ");
+    }
+
+    private static MimeMessage parseMessage(byte[] message) throws MessagingException {
+        return new MimeMessage(Session.getInstance(new Properties()), new ByteArrayInputStream(message));
+    }
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = restEmployeeMockMvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+        return restEmployeeMockMvc.perform(asyncDispatch(result));
+    }
+
+    private static Map<String, byte[]> unzip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            for (ZipEntry entry = zipInputStream.getNextEntry(); entry != null; entry = zipInputStream.getNextEntry()) {
+                entries.put(entry.getName(), StreamUtils.copyToByteArray(zipInputStream));
+            }
+        }
+        return entries;
+    }
+
+    private boolean isImportJobPending(String jobId) {
+        EmployeeImportJob.Status status = employeeImportJobRepository.findById(jobId).get().getStatus();
+        return status == EmployeeImportJob.Status.PENDING || status == EmployeeImportJob.Status.RUNNING;
+    }
+
     @Test
     public void getAllEmployees() throws Exception {
         // Initialize the database
@@ -148,6 +440,53 @@ public class EmployeeControllerIT {
                 .andExpect(jsonPath("$.[*].firmName").value(hasItem(DEFAULT_FIRMNAME)));
     }
 
+    @Test
+    public void getAllEmployeesPaginated() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee);
+        Employee anotherEmployee = this.createEntity();
+        anotherEmployee.setEmployeeId(ANOTHER_ID);
+        employeeRepository.save(anotherEmployee);
+
+        // Get the first page of the employees sorted by id
+        restEmployeeMockMvc.perform(get("/api/employee?page=0&size=1&sort=employeeId,desc").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().string("X-Total-Count", "2"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].employeeId").value(ANOTHER_ID));
+    }
+
+    @Test
+    public void getAllEmployeesFiltered() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee);
+        Employee anotherEmployee = this.createEntity();
+        anotherEmployee.setEmployeeId(ANOTHER_ID);
+        anotherEmployee.setFirmCity("another city");
+        employeeRepository.save(anotherEmployee);
+
+        // Get the employees of the firm in the default city
+        restEmployeeMockMvc.perform(get("/api/employee?firmName={firmName}&firmCity={firmCity}", DEFAULT_FIRMNAME, DEFAULT_FIRMCITY)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$.[*].employeeId").value(contains(DEFAULT_ID)));
+    }
+
+    @Test
+    public void getAllEmployeeSummaries() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee);
+
+        // Get the summary of all the employees
+        restEmployeeMockMvc.perform(get("/api/employee?view=summary").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].employeeId").value(hasItem(DEFAULT_ID)))
+                .andExpect(jsonPath("$.[*].lastName").value(hasItem(DEFAULT_LASTNAME)))
+                .andExpect(jsonPath("$.[0].firmName").doesNotExist());
+    }
+
     @Test
     public void getEmployee() throws Exception {
         // Initialize the database
@@ -201,6 +540,26 @@ public class EmployeeControllerIT {
         });
     }
 
+    @Test
+    public void updateEmployeeWithOutdatedVersion() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee);
+        Employee storedEmployee = employeeRepository.findById(employee.getEmployeeId()).get();
+
+        // Update the employee based on an outdated version
+        EmployeeDTO employeeDTO = new EmployeeDTO(storedEmployee);
+        employeeDTO.setEmail(UPDATED_EMAIL);
+        employeeDTO.setVersion(storedEmployee.getVersion() - 1);
+
+        restEmployeeMockMvc.perform(put("/api/employee")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(employeeDTO)))
+            .andExpect(status().isConflict());
+
+        // Validate the employee is unchanged
+        assertThat(employeeRepository.findById(employee.getEmployeeId()).get().getEmail()).isEqualTo(DEFAULT_EMAIL);
+    }
+
     @Test
     public void deleteEmployee() throws Exception {
         // Initialize the database
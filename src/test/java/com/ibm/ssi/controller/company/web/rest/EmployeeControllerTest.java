@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.web.rest;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+
+import com.ibm.ssi.controller.company.service.EmployeeService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+/**
+ * Tests of the content negotiation of the {@link EmployeeController}, with a mocked {@link EmployeeService}.
+ */
+public class EmployeeControllerTest {
+
+    private static final String EMPLOYEE_ID = "ID_1";
+
+    private static final byte[] PNG = { (byte) 0x89, 'P', 'N', 'G' };
+
+    private static final String SVG = "<svg/>";
+
+    private MockMvc restEmployeeMockMvc;
+
+    @BeforeEach
+    public void init() throws Exception {
+        EmployeeService employeeService = mock(EmployeeService.class);
+        when(employeeService.createEmployeeInvitationAsQRCode(EMPLOYEE_ID)).thenReturn(PNG);
+        when(employeeService.createEmployeeInvitationAsSVGQRCode(EMPLOYEE_ID)).thenReturn(SVG);
+
+        EmployeeController employeeController = new EmployeeController();
+        employeeController.employeeService = employeeService;
+        restEmployeeMockMvc = MockMvcBuilders.standaloneSetup(employeeController).build();
+    }
+
+    @Test
+    public void createInvitationByQRAsPngByDefault() throws Exception {
+        assertQRCode(null, MediaType.IMAGE_PNG, PNG);
+        assertQRCode("*/*", MediaType.IMAGE_PNG, PNG);
+        assertQRCode("image/*", MediaType.IMAGE_PNG, PNG);
+        assertQRCode("image/png", MediaType.IMAGE_PNG, PNG);
+    }
+
+    @Test
+    public void createInvitationByQRAsSvgIfPreferred() throws Exception {
+        byte[] svg = SVG.getBytes(StandardCharsets.UTF_8);
+        assertQRCode("image/svg+xml", MediaType.valueOf("image/svg+xml"), svg);
+        assertQRCode("image/png;q=0.5, image/svg+xml", MediaType.valueOf("image/svg+xml"), svg);
+        assertQRCode("image/svg+xml;q=0.5, image/png", MediaType.IMAGE_PNG, PNG);
+        // a specific type is preferred to a wildcard of the same quality
+        assertQRCode("image/*, image/svg+xml", MediaType.valueOf("image/svg+xml"), svg);
+    }
+
+    @Test
+    public void createInvitationByQRInUnacceptableFormat() throws Exception {
+        restEmployeeMockMvc.perform(post("/api/employee/{employeeId}/create-invitation/qr", EMPLOYEE_ID)
+            .header(HttpHeaders.ACCEPT, MediaType.TEXT_HTML_VALUE))
+            .andExpect(status().isNotAcceptable());
+    }
+
+    private void assertQRCode(String accept, MediaType contentType, byte[] body) throws Exception {
+        MvcResult result = restEmployeeMockMvc.perform(accept == null
+                ? post("/api/employee/{employeeId}/create-invitation/qr", EMPLOYEE_ID)
+                : post("/api/employee/{employeeId}/create-invitation/qr", EMPLOYEE_ID).header(HttpHeaders.ACCEPT, accept))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restEmployeeMockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(contentType))
+            .andExpect(content().bytes(body));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.ibm.ssi.controller.company.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+import com.ibm.ssi.controller.company.CompanyControllerApp;
+import com.ibm.ssi.controller.company.domain.IssuedCredential;
+import com.ibm.ssi.controller.company.repository.IssuedCredentialRepository;
+import com.ibm.ssi.controller.company.security.AuthoritiesConstants;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link IssuedCredentialController} REST controller.
+ */
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@SpringBootTest(classes = CompanyControllerApp.class)
+public class IssuedCredentialControllerIT {
+
+    private static final Date ISSUANCE_DATE = new Date(1600000000000L);
+
+    @Autowired
+    private IssuedCredentialRepository issuedCredentialRepository;
+
+    @Autowired
+    private MockMvc restIssuedCredentialMockMvc;
+
+    @BeforeEach
+    public void initTest() {
+        issuedCredentialRepository.deleteAll();
+    }
+
+    private IssuedCredential createEntity(String id, Date issuanceDate) {
+        IssuedCredential issuedCredential = new IssuedCredential();
+        issuedCredential.setId(id);
+        issuedCredential.setIssuanceDate(issuanceDate);
+        issuedCredential.setCredentialRevocationId("1");
+        issuedCredential.setRevocationRegistryId("registry");
+        return issuedCredential;
+    }
+
+    @Test
+    public void getIssuedCredentialsAcrossSlicesWithEqualIssuanceDates() throws Exception {
+        // Initialize the database
+        issuedCredentialRepository.save(createEntity("ID_C", ISSUANCE_DATE));
+        issuedCredentialRepository.save(createEntity("ID_A", ISSUANCE_DATE));
+        issuedCredentialRepository.save(createEntity("ID_B", ISSUANCE_DATE));
+
+        // The first slice ends between two credentials of the same issuance date
+        String continuation = restIssuedCredentialMockMvc.perform(get("/api/issued-credential?size=2").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains("ID_A", "ID_B")))
+            .andExpect(header().exists(IssuedCredentialController.CONTINUATION_TOKEN_HEADER))
+            .andReturn().getResponse().getHeader(IssuedCredentialController.CONTINUATION_TOKEN_HEADER);
+
+        // The second slice continues after the last id, not after the issuance date
+        restIssuedCredentialMockMvc.perform(get("/api/issued-credential?size=2&continuation={continuation}", continuation)
+            .accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(contains("ID_C")))
+            .andExpect(header().doesNotExist(IssuedCredentialController.CONTINUATION_TOKEN_HEADER));
+    }
+
+    @Test
+    public void getIssuedCredentialsWithMalformedContinuationToken() throws Exception {
+        restIssuedCredentialMockMvc.perform(get("/api/issued-credential?continuation={continuation}", "not a token!"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getIssuedCredentialsWithForgedContinuationToken() throws Exception {
+        // Initialize the database
+        issuedCredentialRepository.save(createEntity("ID_A", ISSUANCE_DATE));
+        issuedCredentialRepository.save(createEntity("ID_B", ISSUANCE_DATE));
+
+        String continuation = restIssuedCredentialMockMvc.perform(get("/api/issued-credential?size=1"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(IssuedCredentialController.CONTINUATION_TOKEN_HEADER);
+
+        // A position made up by the client, with the signature of a valid token
+        String position = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((ISSUANCE_DATE.getTime() + ":ID_0").getBytes(StandardCharsets.UTF_8));
+        String forged = position + continuation.substring(continuation.indexOf('.'));
+
+        restIssuedCredentialMockMvc.perform(get("/api/issued-credential?continuation={continuation}", forged))
+            .andExpect(status().isBadRequest());
+
+        // A position without a signature
+        restIssuedCredentialMockMvc.perform(get("/api/issued-credential?continuation={continuation}", position))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getIssuedCredentialsWithInvalidSize() throws Exception {
+        restIssuedCredentialMockMvc.perform(get("/api/issued-credential?size=2000"))
+            .andExpect(status().isOk());
+
+        restIssuedCredentialMockMvc.perform(get("/api/issued-credential?size=2001"))
+            .andExpect(status().isBadRequest());
+
+        restIssuedCredentialMockMvc.perform(get("/api/issued-credential?size=0"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2021 Bundesreplublik Deutschland
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.ibm.ssi.controller.company.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ibm.ssi.controller.company.CompanyControllerApp;
+import com.ibm.ssi.controller.company.client.ACAPYClient;
+import com.ibm.ssi.controller.company.client.model.ConnectionRecordDTO;
+import com.ibm.ssi.controller.company.client.model.IssueCredentialRecordDTO;
+import com.ibm.ssi.controller.company.domain.ConnectionAlias;
+import com.ibm.ssi.controller.company.domain.Employee;
+import com.ibm.ssi.controller.company.repository.ConnectionAliasRepository;
+import com.ibm.ssi.controller.company.repository.EmployeeRepository;
+import com.ibm.ssi.controller.company.repository.IssuedCredentialRepository;
+import com.ibm.ssi.controller.company.security.AuthoritiesConstants;
+import com.ibm.ssi.controller.company.service.ConnectionAliasService;
+import com.ibm.ssi.controller.company.service.dto.WebhookConnectionDTO;
+import com.ibm.ssi.controller.company.service.dto.WebhookIssueCredentialDTO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests for the {@link WebhookController} REST controller, resolving the employee of a connection
+ * through the connection alias index.
+ */
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@SpringBootTest(classes = CompanyControllerApp.class)
+public class WebhookControllerIT {
+
+    private static final String CONNECTION_ID = "connection";
+    private static final String EMPLOYEE_ID = "ID_1";
+    private static final String CREDENTIAL_EXCHANGE_ID = "exchange";
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private IssuedCredentialRepository issuedCredentialRepository;
+
+    @Autowired
+    private ConnectionAliasRepository connectionAliasRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MockMvc restWebhookMockMvc;
+
+    @MockBean
+    private ACAPYClient acapyClient;
+
+    @BeforeEach
+    public void initTest() {
+        employeeRepository.deleteAll();
+        issuedCredentialRepository.deleteAll();
+        connectionAliasRepository.deleteAll();
+        cacheManager.getCache(ConnectionAliasService.CONNECTION_ALIAS_CACHE).clear();
+
+        Employee employee = new Employee();
+        employee.setEmployeeId(EMPLOYEE_ID);
+        employee.setFirstName("John");
+        employee.setLastName("Doe");
+        employee.setEmail("John@Doe");
+        employeeRepository.save(employee);
+
+        IssueCredentialRecordDTO issueCredentialRecord = new IssueCredentialRecordDTO();
+        issueCredentialRecord.setRev_id("1");
+        issueCredentialRecord.setRev_reg_id("registry");
+        when(acapyClient.getIssueCredentialRecord(any(), eq(CREDENTIAL_EXCHANGE_ID))).thenReturn(issueCredentialRecord);
+    }
+
+    @Test
+    public void resolvesCachedAliasWithoutAgent() throws Exception {
+        postConnection(new WebhookConnectionDTO(CONNECTION_ID, EMPLOYEE_ID, "active"));
+        assertThat(connectionAliasRepository.existsById(CONNECTION_ID)).isTrue();
+        // only the cache knows the alias now
+        connectionAliasRepository.deleteAll();
+
+        postCredentialIssued();
+
+        verify(acapyClient, never()).getConnectionRecordById(any(), any());
+        assertIssuedAndCleanedUp();
+    }
+
+    @Test
+    public void resolvesStoredAliasWithoutAgent() throws Exception {
+        connectionAliasRepository.save(new ConnectionAlias(CONNECTION_ID, EMPLOYEE_ID));
+
+        postCredentialIssued();
+
+        verify(acapyClient, never()).getConnectionRecordById(any(), any());
+        assertIssuedAndCleanedUp();
+    }
+
+    @Test
+    public void resolvesUnknownAliasWithAgent() throws Exception {
+        ConnectionRecordDTO connectionRecord = new ConnectionRecordDTO();
+        connectionRecord.setConnectionId(CONNECTION_ID);
+        connectionRecord.setAlias(EMPLOYEE_ID);
+        when(acapyClient.getConnectionRecordById(any(), eq(CONNECTION_ID))).thenReturn(connectionRecord);
+
+        postCredentialIssued();
+
+        verify(acapyClient, times(1)).getConnectionRecordById(any(), eq(CONNECTION_ID));
+        assertIssuedAndCleanedUp();
+    }
+
+    private void postConnection(WebhookConnectionDTO connection) throws Exception {
+        restWebhookMockMvc.perform(post("/topic/connections")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(connection)))
+            .andExpect(status().isNoContent());
+    }
+
+    private void postCredentialIssued() throws Exception {
+        WebhookIssueCredentialDTO issueCredential = new WebhookIssueCredentialDTO();
+        issueCredential.setConnectionId(CONNECTION_ID);
+        issueCredential.setCredentialExchangeId(CREDENTIAL_EXCHANGE_ID);
+        issueCredential.setState("credential_issued");
+
+        restWebhookMockMvc.perform(post("/topic/issue_credential")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(TestUtil.convertObjectToJsonBytes(issueCredential)))
+            .andExpect(status().isNoContent());
+    }
+
+    private void assertIssuedAndCleanedUp() {
+        assertThat(issuedCredentialRepository.findById(EMPLOYEE_ID)).hasValueSatisfying(issuedCredential ->
+            assertThat(issuedCredential.getRevocationRegistryId()).isEqualTo("registry"));
+        verify(acapyClient).deleteIssueCredentialRecord(any(), eq(CREDENTIAL_EXCHANGE_ID));
+        assertThat(employeeRepository.existsById(EMPLOYEE_ID)).isFalse();
+        // the alias is deleted and evicted together with the employee
+        assertThat(connectionAliasRepository.existsById(CONNECTION_ID)).isFalse();
+        assertThat(cacheManager.getCache(ConnectionAliasService.CONNECTION_ALIAS_CACHE).get(CONNECTION_ID)).isNull();
+    }
+}